@@ -0,0 +1,255 @@
+package com.erland.chess;
+
+import com.erland.chess.model.Board;
+import com.erland.chess.model.MoveList;
+import com.erland.chess.model.Moves;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless perft: counts the leaf nodes of the legal move tree to a fixed
+ * depth. Used as a move generator benchmark and as a correctness oracle
+ * against published node counts.
+ *
+ * Usage: Perft [--threads N] [--hash MB [--compare]] &lt;depth&gt; [fen | startpos]
+ *
+ * With --hash, subtree counts are cached by (Zobrist key, depth) in a
+ * table shared by all workers; --compare also runs plain perft and
+ * reports the speedup.
+ */
+public class Perft {
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hashMb = 0;
+        boolean compare = false;
+        int depth = -1;
+        StringBuilder fen = new StringBuilder();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--hash") && i + 1 < args.length) {
+                hashMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--compare")) {
+                compare = true;
+            } else if (depth < 0 && args[i].matches("\\d+")) {
+                depth = Integer.parseInt(args[i]);
+            } else {
+                fen.append(args[i]).append(' ');
+            }
+        }
+        if (depth < 1) {
+            System.err.println("Usage: Perft [--threads N] [--hash MB [--compare]] <depth> [fen | startpos]");
+            System.exit(1);
+        }
+        String position = fen.toString().trim();
+        if (position.isEmpty() || position.equals("startpos")) {
+            position = START_FEN;
+        }
+
+        System.out.println("Position: " + position);
+        System.out.println("Depth: " + depth + ", threads: " + threads
+            + (hashMb > 0 ? ", hash: " + hashMb + " MB" : ""));
+        Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+
+        // The plain run goes first so the hashed run is not charged for JIT warm-up
+        long plainNodes = -1;
+        long plainElapsed = 0;
+        if (cache != null && compare) {
+            long plainStart = System.nanoTime();
+            plainNodes = divide(position, depth, threads, false, null);
+            plainElapsed = System.nanoTime() - plainStart;
+        }
+
+        long start = System.nanoTime();
+        long nodes = divide(position, depth, threads, true, cache);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        printTiming(nodes, elapsed);
+
+        if (cache != null) {
+            long probes = cache.probes.sum();
+            long hits = cache.hits.sum();
+            System.out.printf("Cache hits: %,d of %,d probes (%.1f%%)%n",
+                hits, probes, probes == 0 ? 0.0 : 100.0 * hits / probes);
+
+            if (compare) {
+                System.out.println();
+                System.out.println("Plain perft nodes: " + plainNodes
+                    + (plainNodes == nodes ? " (match)" : " (MISMATCH)"));
+                printTiming(plainNodes, plainElapsed);
+                System.out.printf("Speedup: %.2fx%n", (double) plainElapsed / Math.max(elapsed, 1));
+            }
+        }
+    }
+
+    private static void printTiming(long nodes, long elapsed) {
+        System.out.printf("Time: %.3f s%n", elapsed / 1e9);
+        System.out.printf("NPS: %,d%n", (long) (nodes / Math.max(elapsed / 1e9, 1e-9)));
+    }
+
+    /**
+     * Perft with the root moves split across a ForkJoinPool. Each root
+     * move gets its own Board, so workers share nothing.
+     */
+    public static long divide(String fen, int depth, int threads, boolean print, Cache cache) {
+        Board root = Board.fromFen(fen);
+        MoveList rootMoves = new MoveList();
+        root.generateLegalMoves(rootMoves);
+
+        List<RootTask> tasks = new ArrayList<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootTask(fen, rootMoves.get(i), depth, cache));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (RootTask task : tasks) {
+                pool.execute(task);
+            }
+            long total = 0;
+            tasks.sort((a, b) -> Moves.toUci(a.move).compareTo(Moves.toUci(b.move)));
+            for (RootTask task : tasks) {
+                long count = task.join();
+                total += count;
+                if (print) {
+                    System.out.println(Moves.toUci(task.move) + ": " + count);
+                }
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plain single-threaded perft using make/unmake. lists holds one
+     * reusable MoveList per remaining depth.
+     */
+    public static long perft(Board board, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth];
+        board.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, depth - 1, lists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Perft that looks subtrees up in the shared cache before expanding
+     * them. Depth 1 entries are cached too: a hit there saves a full move
+     * generation, which is most of the work at the leaves.
+     */
+    public static long perftHashed(Board board, int depth, MoveList[] lists, Cache cache) {
+        long key = board.hash();
+        long cached = cache.probe(key, depth);
+        if (cached >= 0) {
+            return cached;
+        }
+        MoveList moves = lists[depth];
+        board.generateLegalMoves(moves);
+        if (depth == 1) {
+            cache.store(key, depth, moves.size());
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perftHashed(board, depth - 1, lists, cache);
+            board.unmakeMove();
+        }
+        cache.store(key, depth, nodes);
+        return nodes;
+    }
+
+    static MoveList[] newLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    private static class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final String fen;
+        private final int move;
+        private final int depth;
+        private final Cache cache;
+
+        RootTask(String fen, int move, int depth, Cache cache) {
+            this.fen = fen;
+            this.move = move;
+            this.depth = depth;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth == 1) {
+                return 1L;
+            }
+            Board board = Board.fromFen(fen);
+            board.makeMove(move);
+            MoveList[] lists = newLists(depth - 1);
+            return cache == null
+                ? perft(board, depth - 1, lists)
+                : perftHashed(board, depth - 1, lists, cache);
+        }
+    }
+
+    /**
+     * Fixed-size (key, depth) -&gt; node count table shared by all workers
+     * without locks. Each slot is two longs: the key XOR the data, and the
+     * data. A slot torn by two writers racing fails the XOR check and
+     * reads as a miss, so a bad count can never be returned.
+     */
+    public static final class Cache {
+        private final long[] table;
+        private final int mask;
+        final LongAdder probes = new LongAdder();
+        final LongAdder hits = new LongAdder();
+
+        public Cache(int megabytes) {
+            // 16 bytes per slot, rounded down to a power of two
+            long slots = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / 16));
+            slots = Math.min(slots, 1L << 29);
+            table = new long[(int) slots * 2];
+            mask = (int) slots - 1;
+        }
+
+        // Node count for the position at this depth, or -1 on a miss
+        long probe(long key, int depth) {
+            probes.increment();
+            int i = ((int) key & mask) << 1;
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && (data & 0xFF) == depth) {
+                hits.increment();
+                return data >>> 8;
+            }
+            return -1;
+        }
+
+        // Always replaces: a newer entry is as likely to be reused as an older one
+        void store(long key, int depth, long nodes) {
+            int i = ((int) key & mask) << 1;
+            long data = (nodes << 8) | depth;
+            table[i] = key ^ data;
+            table[i + 1] = data;
+        }
+    }
+}
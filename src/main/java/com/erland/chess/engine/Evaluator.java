@@ -0,0 +1,53 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Bitboard;
+import com.erland.chess.model.Board;
+import com.erland.chess.model.PieceSquareTables;
+
+/**
+ * Static evaluation in centipawns from the side to move's point of view.
+ * Material and piece-square values are kept by the Board as middlegame
+ * and endgame totals; the score blends the two by the game phase, so a
+ * call costs O(1) however many pieces are on the board. Pawn structure
+ * comes from a PawnTable, which only recomputes it when the pawns change.
+ */
+public final class Evaluator {
+    // Indexed by piece type (PAWN..KING), used by static exchange evaluation
+    public static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    // Endgame bonus for a passed pawn whose square in front is empty, by rank from its own side
+    private static final int[] FREE_PASSER_EG = {0, 0, 2, 5, 10, 20, 35, 0};
+
+    private Evaluator() {
+    }
+
+    public static int evaluate(Board board, PawnTable pawns) {
+        int mg = board.mgScore;
+        int eg = board.egScore;
+
+        int entry = pawns.probe(board);
+        mg += pawns.mgScore(entry);
+        eg += pawns.egScore(entry);
+        mg += pawns.shield(entry, Board.WHITE, board.kingSquare(Board.WHITE))
+            - pawns.shield(entry, Board.BLACK, board.kingSquare(Board.BLACK));
+
+        // Passers depend on the pawns alone, but whether they can advance depends on the pieces
+        long passed = pawns.passedPawns(entry);
+        while (passed != 0) {
+            int sq = Bitboard.lsb(passed);
+            passed &= passed - 1;
+            if (board.mailbox[sq] == Board.pieceCode(Board.PAWN, Board.WHITE)) {
+                if ((board.occupied & Bitboard.bit(sq + 8)) == 0) {
+                    eg += FREE_PASSER_EG[sq >>> 3];
+                }
+            } else if ((board.occupied & Bitboard.bit(sq - 8)) == 0) {
+                eg -= FREE_PASSER_EG[7 - (sq >>> 3)];
+            }
+        }
+
+        // Promotions can push the phase past its opening value
+        int phase = Math.min(board.phase, PieceSquareTables.MAX_PHASE);
+        int score = (mg * phase + eg * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return board.isWhiteTurn ? score : -score;
+    }
+}
@@ -0,0 +1,109 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.MoveList;
+import com.erland.chess.model.Moves;
+
+/**
+ * Move ordering for one search thread. Moves are scored once per node
+ * and then picked best-first one at a time, so a node that cuts off
+ * early never pays for sorting the rest of its list.
+ *
+ * Order: the hash (or PV) move, captures and promotions by MVV-LVA,
+ * the two killer moves of the ply, then quiet moves by butterfly
+ * history (indexed by side, from and to square).
+ */
+public final class MoveOrdering {
+    private static final int HASH_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    // History is halved once any entry passes this, so it stays below the killers
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] scores = new int[Search.MAX_PLY + 1][MoveList.CAPACITY];
+
+    /** Clears the killers and ages the history before a new search. */
+    public void newSearch() {
+        for (int[] ply : killers) {
+            ply[0] = Moves.NONE;
+            ply[1] = Moves.NONE;
+        }
+        ageHistory();
+    }
+
+    /** Scores every move of the node at ply; hashMove goes first. */
+    public void score(MoveList moves, int ply, int hashMove) {
+        int[] score = scores[ply];
+        for (int i = 0; i < moves.size; i++) {
+            int move = moves.moves[i];
+            if (move == hashMove) {
+                score[i] = HASH_SCORE;
+            } else if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+                score[i] = CAPTURE_SCORE + mvvLva(move);
+            } else if (move == killers[ply][0]) {
+                score[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                score[i] = KILLER_SCORE;
+            } else {
+                score[i] = history[Moves.piece(move) & 1][Moves.from(move)][Moves.to(move)];
+            }
+        }
+    }
+
+    /**
+     * Moves the best remaining move to index and returns it (one step of
+     * a selection sort).
+     */
+    public int pick(MoveList moves, int ply, int index) {
+        int[] score = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size; i++) {
+            if (score[i] > score[best]) {
+                best = i;
+            }
+        }
+        int move = moves.moves[best];
+        if (best != index) {
+            moves.moves[best] = moves.moves[index];
+            moves.moves[index] = move;
+            int s = score[best];
+            score[best] = score[index];
+            score[index] = s;
+        }
+        return move;
+    }
+
+    /** Rewards a quiet move that caused a beta cutoff. */
+    public void cutoff(int move, int ply, int depth) {
+        if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] entry = history[Moves.piece(move) & 1][Moves.from(move)];
+        entry[Moves.to(move)] += depth * depth;
+        if (entry[Moves.to(move)] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    // Most valuable victim first, then least valuable attacker
+    private static int mvvLva(int move) {
+        int victim = Moves.isCapture(move) ? Moves.captured(move) >> 1 : 0;
+        int promotion = Moves.isPromotion(move) ? Moves.promotion(move) : 0;
+        return (victim + promotion) * 8 - (Moves.piece(move) >> 1);
+    }
+
+    private void ageHistory() {
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                for (int to = 0; to < 64; to++) {
+                    from[to] >>= 1;
+                }
+            }
+        }
+    }
+}
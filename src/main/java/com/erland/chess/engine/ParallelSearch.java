@@ -0,0 +1,210 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Board;
+
+/**
+ * Lazy SMP: the main search and N-1 helper threads search the same root
+ * position, each on its own Board, and share one transposition table.
+ * Helpers only feed the table; the main search's result is the answer.
+ * Odd helpers start one ply deeper, so the threads spread over different
+ * depths instead of repeating the same work.
+ *
+ * One instance can serve a whole game: the transposition table and the
+ * per-thread pawn tables carry over from one think to the next. Thinks
+ * must not overlap; run them one at a time, e.g. on one executor thread.
+ */
+public class ParallelSearch {
+    private static final int PAWN_TABLE_MB = 1;
+
+    private final int threads;
+    private final TranspositionTable table;
+    // One pawn table per thread, kept across thinks; index 0 is the main search's
+    private final PawnTable[] pawnTables;
+    private long[] threadNodes = new long[0];
+    private long threadMillis;
+    private SearchListener listener;
+
+    // The running searches, so stop() can reach them from another thread
+    private volatile Search main;
+    private volatile Search[] helpers = new Search[0];
+    private volatile boolean stopRequested;
+    // Absolute stop time for the main search, guarded by this
+    private long deadline = Long.MAX_VALUE;
+    // Set by ponderhit() until the current or next think ends, guarded by this
+    private boolean ponderHit;
+
+    public ParallelSearch(int threads, TranspositionTable table) {
+        this.threads = Math.max(1, threads);
+        this.table = table;
+        pawnTables = new PawnTable[this.threads];
+        for (int i = 0; i < this.threads; i++) {
+            pawnTables[i] = new PawnTable(PAWN_TABLE_MB);
+        }
+    }
+
+    /**
+     * Searches a copy of position with all threads for up to maxDepth
+     * plies or millis milliseconds. millis = 0 searches until stop() or
+     * ponderhit(), which is how pondering runs. The returned node count
+     * and NPS cover all threads.
+     */
+    public SearchResult think(Board position, int maxDepth, long millis) {
+        // Only a stop() that arrives during this think counts
+        stopRequested = false;
+        String fen = position.toFen();
+        table.newSearch();
+        // Every think sets its own deadline, so an untimed ponder never inherits an expired one,
+        // unless ponderhit() already came for this ponder before it started
+        synchronized (this) {
+            if (millis > 0) {
+                deadline = System.currentTimeMillis() + millis;
+            } else if (!ponderHit) {
+                deadline = Long.MAX_VALUE;
+            }
+        }
+
+        Search main = new Search(Board.fromFen(fen), table, pawnTables[0]);
+        Search[] helpers = new Search[threads - 1];
+        Thread[] workers = new Thread[threads - 1];
+        // Captured now, so a listener set for the next think never sees this one's iterations
+        SearchListener listener = this.listener;
+        if (listener != null) {
+            // Iterations come from the main thread; node counts cover all threads
+            main.setListener(result -> listener.onIteration(new SearchResult(result.pv, result.score,
+                result.depth, result.nodes + helperNodes(helpers), result.millis)));
+        }
+        synchronized (this) {
+            this.main = main;
+            main.setDeadline(deadline);
+        }
+        this.helpers = helpers;
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = new Search(Board.fromFen(fen), table, pawnTables[i + 1]);
+            int startDepth = 1 + (i + 1) % 2;
+            helpers[i] = helper;
+            workers[i] = new Thread(() -> helper.iterate(startDepth, Search.MAX_PLY), "search-helper-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        if (stopRequested) {
+            stop();
+        }
+
+        long start = System.currentTimeMillis();
+        SearchResult result = main.iterate(1, maxDepth);
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+        // Wait out every helper even when interrupted: the next think hands their pawn tables to new threads
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            ponderHit = false;
+        }
+        threadMillis = System.currentTimeMillis() - start;
+
+        threadNodes = new long[threads];
+        threadNodes[0] = main.nodes();
+        long total = main.nodes();
+        for (int i = 0; i < helpers.length; i++) {
+            threadNodes[i + 1] = helpers[i].nodes();
+            total += helpers[i].nodes();
+        }
+        return new SearchResult(result.pv, result.score, result.depth, total, threadMillis);
+    }
+
+    /** Listener for the main thread's iterations; a think uses the one set when it starts. */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ends a running think early; it returns the last completed iteration.
+     * Safe to call from any thread. A stop() with no think running is
+     * forgotten when the next think starts; to cancel a think that may
+     * not have started yet, interrupt the thread that will run it.
+     */
+    public void stop() {
+        stopRequested = true;
+        Search current = main;
+        if (current != null) {
+            current.stop();
+        }
+        for (Search helper : helpers) {
+            if (helper != null) {
+                helper.stop();
+            }
+        }
+    }
+
+    /**
+     * Turns a ponder search into the real one: the opponent played the
+     * expected move, so the search keeps going for millis more and then
+     * returns its move. Safe to call from any thread, also before the
+     * ponder think has started; it then starts with this deadline.
+     */
+    public synchronized void ponderhit(long millis) {
+        ponderHit = true;
+        deadline = System.currentTimeMillis() + millis;
+        if (main != null) {
+            main.setDeadline(deadline);
+        }
+    }
+
+    // Racy read of the helpers' counters, good enough for progress reports
+    private static long helperNodes(Search[] helpers) {
+        long total = 0;
+        for (Search helper : helpers) {
+            if (helper != null) {
+                total += helper.nodes();
+            }
+        }
+        return total;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    /** Nodes searched by each thread in the last think, main thread first. */
+    public long[] threadNodes() {
+        return threadNodes.clone();
+    }
+
+    /** Share of evaluations that found their pawn structure cached, over all threads so far. */
+    public double pawnHitRate() {
+        long probes = 0;
+        long hits = 0;
+        for (PawnTable pawns : pawnTables) {
+            probes += pawns.probes();
+            hits += pawns.hits();
+        }
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    /** Per-thread NPS of the last think, e.g. "t0 1200k t1 1150k". */
+    public String threadReport() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < threadNodes.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append('t').append(i).append(' ')
+                .append(threadNodes[i] / Math.max(threadMillis, 1)).append("k");
+        }
+        return sb.toString() + " nps";
+    }
+}
@@ -0,0 +1,208 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Bitboard;
+import com.erland.chess.model.Board;
+
+/**
+ * Cache of pawn structure terms keyed by the Board's pawn-only Zobrist
+ * key. The pawn skeleton changes only on pawn moves and pawn captures,
+ * so nearly every evaluation finds its entry here instead of scanning
+ * the pawns again.
+ *
+ * Entries live in parallel primitive arrays: the key, the structure
+ * score (middlegame in the high 16 bits, endgame in the low 16, White
+ * minus Black), the passed pawns of both colors as one bitboard, and the
+ * pawn shield in front of each castled king position. One table belongs
+ * to one search thread, so there is no locking.
+ */
+public class PawnTable {
+    // Indexed by rank counted from the pawn's own side (0 = first rank)
+    private static final int[] PASSED_MG = {0, 0, 5, 10, 20, 35, 60, 0};
+    private static final int[] PASSED_EG = {0, 10, 15, 25, 45, 70, 110, 0};
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -20;
+    private static final int BACKWARD_MG = -8;
+    private static final int BACKWARD_EG = -10;
+    // Shield pawns on the king's three files, one and two ranks ahead of it
+    private static final int SHIELD_NEAR = 10;
+    private static final int SHIELD_FAR = 5;
+    private static final int SHIELD_MISSING = -15;
+
+    // Squares a pawn must pass to promote, on its own and both adjacent files
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // Own pawns on adjacent files level with or behind this square, which can still support it
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    // No real pawn skeleton is expected to hash to this, unlike 0 (no pawns at all)
+    private static final long EMPTY_KEY = -1L;
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? Bitboard.FILE_A << (file - 1) : 0L)
+                | (file < 7 ? Bitboard.FILE_A << (file + 1) : 0L);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq & 7;
+            int rank = sq >>> 3;
+            long files = ADJACENT_FILES[file] | (Bitboard.FILE_A << file);
+            long above = rank < 7 ? -1L << ((rank + 1) * 8) : 0L;
+            long below = rank > 0 ? -1L >>> ((8 - rank) * 8) : 0L;
+            PASSED_SPAN[Board.WHITE][sq] = files & above;
+            PASSED_SPAN[Board.BLACK][sq] = files & below;
+            SUPPORT_SPAN[Board.WHITE][sq] = ADJACENT_FILES[file] & ~above;
+            SUPPORT_SPAN[Board.BLACK][sq] = ADJACENT_FILES[file] & ~below;
+        }
+    }
+
+    private final long[] keys;
+    private final int[] scores;
+    private final long[] passed;
+    // Shield scores as four signed bytes: White queenside, White kingside, Black queenside, Black kingside
+    private final int[] shields;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnTable(int megabytes) {
+        // 24 bytes per entry, rounded down to a power of two
+        long entries = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / 24));
+        entries = Math.min(entries, 1L << 26);
+        keys = new long[(int) entries];
+        scores = new int[(int) entries];
+        passed = new long[(int) entries];
+        shields = new int[(int) entries];
+        mask = (int) entries - 1;
+        java.util.Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    /**
+     * Index of the entry for the board's pawns, computing and storing it
+     * first on a miss.
+     */
+    public int probe(Board board) {
+        long key = board.pawnHash();
+        int i = (int) key & mask;
+        probes++;
+        if (keys[i] == key) {
+            hits++;
+        } else {
+            fill(board, i);
+            keys[i] = key;
+        }
+        return i;
+    }
+
+    public int mgScore(int entry) {
+        // Rounds away the borrow a negative endgame half takes from the upper half
+        return (scores[entry] + 0x8000) >> 16;
+    }
+
+    public int egScore(int entry) {
+        return (short) scores[entry];
+    }
+
+    /** Passed pawns of both colors; mask with a color's pawns to split them. */
+    public long passedPawns(int entry) {
+        return passed[entry];
+    }
+
+    /**
+     * Middlegame shield bonus for a king of this color on this square.
+     * Only a king still on its first two ranks and off the centre files
+     * is counted as sheltering behind its pawns.
+     */
+    public int shield(int entry, int color, int king) {
+        int file = king & 7;
+        int rank = color == Board.WHITE ? king >>> 3 : 7 - (king >>> 3);
+        if (rank > 1 || (file > 2 && file < 5)) {
+            return 0;
+        }
+        int slot = color * 2 + (file < 3 ? 0 : 1);
+        return (byte) (shields[entry] >>> (slot * 8));
+    }
+
+    public long probes() {
+        return probes;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    private void fill(Board board, int i) {
+        long white = board.pieceBB[Board.pieceCode(Board.PAWN, Board.WHITE)];
+        long black = board.pieceBB[Board.pieceCode(Board.PAWN, Board.BLACK)];
+        int mg = 0;
+        int eg = 0;
+        long passedPawns = 0L;
+        for (int color = Board.WHITE; color <= Board.BLACK; color++) {
+            long own = color == Board.WHITE ? white : black;
+            long enemy = color == Board.WHITE ? black : white;
+            int sign = color == Board.WHITE ? 1 : -1;
+            long pawns = own;
+            while (pawns != 0) {
+                int sq = Bitboard.lsb(pawns);
+                pawns &= pawns - 1;
+                int file = sq & 7;
+                int rank = color == Board.WHITE ? sq >>> 3 : 7 - (sq >>> 3);
+                long fileMask = Bitboard.FILE_A << file;
+                // Own pawns ahead on the file: the rear pawn of a doubled pair is never passed
+                long ahead = PASSED_SPAN[color][sq] & fileMask;
+
+                if ((PASSED_SPAN[color][sq] & enemy) == 0 && (ahead & own) == 0) {
+                    passedPawns |= Bitboard.bit(sq);
+                    mg += sign * PASSED_MG[rank];
+                    eg += sign * PASSED_EG[rank];
+                }
+                if ((ADJACENT_FILES[file] & own) == 0) {
+                    mg += sign * ISOLATED_MG;
+                    eg += sign * ISOLATED_EG;
+                } else if ((SUPPORT_SPAN[color][sq] & own) == 0) {
+                    // No pawn can come up beside it, and an enemy pawn guards the square in front
+                    int stop = sq + (color == Board.WHITE ? 8 : -8);
+                    if ((Bitboard.PAWN_ATTACKS[color][stop] & enemy) != 0) {
+                        mg += sign * BACKWARD_MG;
+                        eg += sign * BACKWARD_EG;
+                    }
+                }
+                if ((ahead & own) != 0) {
+                    mg += sign * DOUBLED_MG;
+                    eg += sign * DOUBLED_EG;
+                }
+            }
+        }
+
+        int packed = 0;
+        for (int color = Board.WHITE; color <= Board.BLACK; color++) {
+            long own = color == Board.WHITE ? white : black;
+            for (int side = 0; side < 2; side++) {
+                int score = shieldScore(own, color, side == 0 ? 1 : 6);
+                packed |= (score & 0xFF) << ((color * 2 + side) * 8);
+            }
+        }
+
+        scores[i] = (mg << 16) + eg;
+        passed[i] = passedPawns;
+        shields[i] = packed;
+    }
+
+    // Shield over the three files around kingFile for a king on its first rank
+    private static int shieldScore(long own, int color, int kingFile) {
+        int score = 0;
+        for (int file = kingFile - 1; file <= kingFile + 1; file++) {
+            int near = color == Board.WHITE ? 8 + file : 48 + file;
+            int far = color == Board.WHITE ? 16 + file : 40 + file;
+            if ((own & Bitboard.bit(near)) != 0) {
+                score += SHIELD_NEAR;
+            } else if ((own & Bitboard.bit(far)) != 0) {
+                score += SHIELD_FAR;
+            } else {
+                score += SHIELD_MISSING;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,306 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Board;
+import com.erland.chess.model.MoveList;
+import com.erland.chess.model.Moves;
+import java.util.Arrays;
+
+/**
+ * Negamax alpha-beta search with iterative deepening. The search plays
+ * moves on its own Board with makeMove/unmakeMove, so the Board passed in
+ * must not be shared with the UI. Each iteration starts from the previous
+ * principal variation, and the result of the last completed iteration is
+ * returned when the depth or time budget runs out.
+ */
+public class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 64;
+
+    // How often (in nodes) the clock is read
+    private static final int TIME_CHECK_INTERVAL = 2048;
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final PawnTable pawnTable;
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    // pvTable[ply] holds the best line found from ply onwards
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+    private int rootDepth;
+    private long nodes;
+    // Absolute stop time in ms; may be moved by another thread (ponder hit)
+    private volatile long deadline = Long.MAX_VALUE;
+    private boolean stopped;
+    // Set from another thread to end the search early
+    private volatile boolean stopRequested;
+    private SearchListener listener;
+
+    public Search(Board board) {
+        this(board, new TranspositionTable(16));
+    }
+
+    /**
+     * Search sharing a transposition table that outlives it, e.g. one
+     * table per game so later moves reuse earlier work.
+     */
+    public Search(Board board, TranspositionTable table) {
+        this(board, table, new PawnTable(1));
+    }
+
+    /**
+     * Search with a caller-owned pawn table as well. A pawn table is not
+     * thread safe, so it must not be used by two searches at once.
+     */
+    public Search(Board board, TranspositionTable table, PawnTable pawnTable) {
+        this.board = board;
+        this.table = table;
+        this.pawnTable = pawnTable;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the position with increasing depth until maxDepth is done
+     * or millis have passed (0 = no time limit). Depth 1 always completes,
+     * so a legal move is returned whenever one exists; otherwise bestMove
+     * is Moves.NONE.
+     */
+    public SearchResult think(int maxDepth, long millis) {
+        // Only a stop() that arrives during this think counts
+        stopRequested = false;
+        table.newSearch();
+        deadline = millis > 0 ? System.currentTimeMillis() + millis : Long.MAX_VALUE;
+        return iterate(1, maxDepth);
+    }
+
+    /** Listener told about each completed iteration, or null. */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks a running search to stop; think returns the last completed
+     * iteration. Safe to call from any thread. A stop() with no think
+     * running is forgotten when the next think starts.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    // New absolute stop time, e.g. when a ponder search becomes the real one
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    // Iterative deepening from startDepth until the deadline; helper threads start at different depths
+    SearchResult iterate(int startDepth, int maxDepth) {
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        stopped = false;
+        previousPv = new int[0];
+        ordering.newSearch();
+
+        SearchResult best = null;
+        for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+            rootDepth = depth;
+            followPv = true;
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                // The unfinished iteration is thrown away
+                break;
+            }
+            previousPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            best = new SearchResult(previousPv, score, depth, nodes, System.currentTimeMillis() - start);
+            if (listener != null) {
+                listener.onIteration(best);
+            }
+            // Stop once a mate is proven within the full-width depth (no shorter one can exist)
+            if ((best.isMate() && depth >= MATE - Math.abs(score)) || previousPv.length == 0) {
+                break;
+            }
+        }
+        if (best == null) {
+            // No legal move: checkmate or stalemate at the root
+            best = new SearchResult(new int[0], 0, 0, nodes, System.currentTimeMillis() - start);
+        }
+        return best;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && shouldStop()) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply > 0 && board.halfmoveClock >= 100) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        // A stored result at least as deep can answer the node outright
+        long key = board.hash();
+        long entry = table.probe(key);
+        int hashMove = Moves.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        board.generateLegalMoves(moves);
+        if (moves.isEmpty()) {
+            // Checkmate scores prefer the shortest mate; stalemate is a draw
+            return board.isKingInCheck(board.isWhiteTurn) ? -MATE + ply : 0;
+        }
+
+        // The previous iteration's move goes first while still on its line,
+        // otherwise the table's best move
+        boolean onPv = followPv && ply < previousPv.length;
+        followPv = false;
+        int firstMove = onPv ? previousPv[ply] : hashMove;
+        ordering.score(moves, ply, firstMove);
+
+        int alphaOrig = alpha;
+        int bestMove = Moves.NONE;
+        for (int i = 0; i < moves.size; i++) {
+            int move = ordering.pick(moves, ply, i);
+            followPv = onPv && move == firstMove;
+            board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            followPv = false;
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                pvTable[ply][0] = move;
+                System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+                if (alpha >= beta) {
+                    ordering.cutoff(move, ply, depth);
+                    break;
+                }
+            }
+        }
+
+        int bound = alpha >= beta ? TranspositionTable.LOWER
+            : alpha > alphaOrig ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, scoreToTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    /**
+     * Capture-only search below the horizon, so leaves are scored only in
+     * quiet positions. The side to move may stand pat on the static
+     * score. Captures that lose material by static exchange are skipped.
+     * In check every evasion is searched instead.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && shouldStop()) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        boolean inCheck = board.isKingInCheck(board.isWhiteTurn);
+        if (ply >= MAX_PLY) {
+            return inCheck ? 0 : Evaluator.evaluate(board, pawnTable);
+        }
+
+        MoveList moves = moveLists[ply];
+        if (inCheck) {
+            board.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else {
+            int standPat = Evaluator.evaluate(board, pawnTable);
+            if (standPat >= beta) {
+                return beta;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            board.generateCaptures(moves);
+        }
+        ordering.score(moves, ply, Moves.NONE);
+
+        for (int i = 0; i < moves.size; i++) {
+            int move = ordering.pick(moves, ply, i);
+            if (!inCheck && !StaticExchange.isAtLeast(board, move, 0)) {
+                continue;
+            }
+            board.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    // Polled every TIME_CHECK_INTERVAL nodes; interrupting the searching thread also stops it
+    private boolean shouldStop() {
+        return stopRequested || Thread.currentThread().isInterrupted()
+            || (rootDepth > 1 && System.currentTimeMillis() > deadline);
+    }
+
+    // Mate scores are stored relative to the node, not the root
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    public PawnTable pawnTable() {
+        return pawnTable;
+    }
+}
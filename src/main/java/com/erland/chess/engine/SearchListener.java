@@ -0,0 +1,9 @@
+package com.erland.chess.engine;
+
+/**
+ * Receives every completed iteration of a running search. Called on the
+ * search thread, so UI code must hand the result over to the EDT.
+ */
+public interface SearchListener {
+    void onIteration(SearchResult result);
+}
@@ -0,0 +1,61 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Moves;
+
+/**
+ * Outcome of one completed iterative deepening iteration.
+ */
+public class SearchResult {
+    public final int bestMove;
+    public final int score;
+    public final int depth;
+    public final long nodes;
+    public final long millis;
+    // Principal variation, best move first
+    public final int[] pv;
+
+    public SearchResult(int[] pv, int score, int depth, long nodes, long millis) {
+        this.pv = pv;
+        this.bestMove = pv.length > 0 ? pv[0] : Moves.NONE;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+    }
+
+    public long nps() {
+        return nodes * 1000 / Math.max(millis, 1);
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /** Score for display: pawns from the searching side's view, or "#n" for mate in n. */
+    public String scoreText() {
+        if (isMate()) {
+            return score > 0 ? "#" + (Search.MATE - score + 1) / 2 : "#-" + (Search.MATE + score) / 2;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+
+    public String pvString() {
+        StringBuilder sb = new StringBuilder();
+        for (int move : pv) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(Moves.toUci(move));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        String value = isMate()
+            ? "mate " + (score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2)
+            : "cp " + score;
+        return "depth " + depth + " score " + value + " nodes " + nodes
+            + " time " + millis + " nps " + nps() + " pv " + pvString();
+    }
+}
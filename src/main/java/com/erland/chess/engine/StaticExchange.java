@@ -0,0 +1,102 @@
+package com.erland.chess.engine;
+
+import com.erland.chess.model.Bitboard;
+import com.erland.chess.model.Board;
+import com.erland.chess.model.Moves;
+
+/**
+ * Static exchange evaluation: plays out the capture sequence on one
+ * square from attack maps alone, each side recapturing with its least
+ * valuable attacker. Sliders hidden behind a capturing piece join in as
+ * the occupancy is cleared (x-rays). Pins are ignored.
+ */
+public final class StaticExchange {
+    private StaticExchange() {
+    }
+
+    /**
+     * True if the exchange started by move wins at least threshold
+     * centipawns for the side making it. Promotions, en passant and
+     * castling always pass.
+     */
+    public static boolean isAtLeast(Board board, int move, int threshold) {
+        if (Moves.isPromotion(move) || Moves.isEnPassant(move) || Moves.isCastling(move)) {
+            return 0 >= threshold;
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int[] values = Evaluator.PIECE_VALUES;
+
+        int captured = Moves.isCapture(move) ? values[Moves.captured(move) >> 1] : 0;
+        int swap = captured - threshold;
+        if (swap < 0) {
+            return false;
+        }
+        // Even losing the moving piece for nothing keeps the threshold
+        swap = values[Moves.piece(move) >> 1] - swap;
+        if (swap <= 0) {
+            return true;
+        }
+
+        long occupied = board.occupied ^ Bitboard.bit(from) ^ Bitboard.bit(to);
+        long diagonal = board.pieceBB[Board.pieceCode(Board.BISHOP, Board.WHITE)]
+            | board.pieceBB[Board.pieceCode(Board.BISHOP, Board.BLACK)]
+            | board.pieceBB[Board.pieceCode(Board.QUEEN, Board.WHITE)]
+            | board.pieceBB[Board.pieceCode(Board.QUEEN, Board.BLACK)];
+        long straight = board.pieceBB[Board.pieceCode(Board.ROOK, Board.WHITE)]
+            | board.pieceBB[Board.pieceCode(Board.ROOK, Board.BLACK)]
+            | board.pieceBB[Board.pieceCode(Board.QUEEN, Board.WHITE)]
+            | board.pieceBB[Board.pieceCode(Board.QUEEN, Board.BLACK)];
+        long attackers = attackersTo(board, to, occupied, diagonal, straight);
+        int side = Moves.piece(move) & 1;
+        // 1 while the side that made the move is ahead of the threshold
+        int result = 1;
+
+        while (true) {
+            side ^= 1;
+            attackers &= occupied;
+            long own = attackers & board.colorBB[side];
+            if (own == 0) {
+                break;
+            }
+            result ^= 1;
+
+            // Least valuable attacker of the side to recapture
+            int type = Board.PAWN;
+            long pieces = 0L;
+            for (; type <= Board.KING; type++) {
+                pieces = own & board.pieceBB[Board.pieceCode(type, side)];
+                if (pieces != 0) {
+                    break;
+                }
+            }
+            if (type == Board.KING) {
+                // The king may only recapture if nothing defends the square any more
+                return (attackers & ~board.colorBB[side]) != 0 ? (result ^ 1) != 0 : result != 0;
+            }
+            swap = values[type] - swap;
+            if (swap < result) {
+                break;
+            }
+            occupied ^= Bitboard.bit(Bitboard.lsb(pieces));
+            if (type == Board.PAWN || type == Board.BISHOP || type == Board.QUEEN) {
+                attackers |= Bitboard.bishopAttacks(to, occupied) & diagonal;
+            }
+            if (type == Board.ROOK || type == Board.QUEEN) {
+                attackers |= Bitboard.rookAttacks(to, occupied) & straight;
+            }
+        }
+        return result != 0;
+    }
+
+    private static long attackersTo(Board board, int square, long occupied, long diagonal, long straight) {
+        return (Bitboard.PAWN_ATTACKS[Board.BLACK][square] & board.pieceBB[Board.pieceCode(Board.PAWN, Board.WHITE)])
+            | (Bitboard.PAWN_ATTACKS[Board.WHITE][square] & board.pieceBB[Board.pieceCode(Board.PAWN, Board.BLACK)])
+            | (Bitboard.KNIGHT_ATTACKS[square] & (board.pieceBB[Board.pieceCode(Board.KNIGHT, Board.WHITE)]
+                | board.pieceBB[Board.pieceCode(Board.KNIGHT, Board.BLACK)]))
+            | (Bitboard.KING_ATTACKS[square] & (board.pieceBB[Board.pieceCode(Board.KING, Board.WHITE)]
+                | board.pieceBB[Board.pieceCode(Board.KING, Board.BLACK)]))
+            | (Bitboard.bishopAttacks(square, occupied) & diagonal)
+            | (Bitboard.rookAttacks(square, occupied) & straight);
+    }
+}
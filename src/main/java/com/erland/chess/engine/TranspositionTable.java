@@ -0,0 +1,129 @@
+package com.erland.chess.engine;
+
+/**
+ * Fixed-size transposition table in one preallocated long[], shared by
+ * search threads without locks.
+ *
+ * Each entry is two longs: the Zobrist key XOR the data, and the data.
+ * An entry torn by two threads writing at once fails the XOR check on
+ * probe and reads as a miss. Entries sit in buckets of two; a store
+ * replaces the entry with the same key, or else the bucket's least
+ * valuable entry, counting shallow and stale (older search) entries as
+ * cheapest.
+ *
+ * Data layout: move in bits 0-31, score in 32-47 (signed), depth in
+ * 48-54, bound in 55-56, age in 57-63. The bound is never 0, so a data
+ * word of 0 always means an empty entry.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int BUCKET_LONGS = 4;
+    private static final int MAX_AGE = 0x7F;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int age = 0;
+
+    public TranspositionTable(int megabytes) {
+        // 32 bytes per bucket, rounded down to a power of two
+        long buckets = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / (BUCKET_LONGS * 8)));
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /** Marks entries from earlier searches as stale. Call once per search. */
+    public void newSearch() {
+        age = (age + 1) & MAX_AGE;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /** Data word stored for this key, or 0 if there is none. */
+    public long probe(long key) {
+        int i = index(key);
+        for (int j = i; j < i + BUCKET_LONGS; j += 2) {
+            long data = table[j + 1];
+            if (data != 0 && (table[j] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int i = index(key);
+        int slot = i;
+        int worst = Integer.MAX_VALUE;
+        for (int j = i; j < i + BUCKET_LONGS; j += 2) {
+            long data = table[j + 1];
+            if (data == 0 || (table[j] ^ data) == key) {
+                slot = j;
+                // Keep the old best move if this search found none
+                if (move == 0 && data != 0) {
+                    move = move(data);
+                }
+                break;
+            }
+            // Each search of age difference counts as 8 plies of depth
+            int value = depth(data) - 8 * ((age - age(data)) & MAX_AGE);
+            if (value < worst) {
+                worst = value;
+                slot = j;
+            }
+        }
+
+        long data = (move & 0xFFFFFFFFL)
+            | ((long) (score & 0xFFFF) << 32)
+            | ((long) Math.min(depth, 0x7F) << 48)
+            | ((long) bound << 55)
+            | ((long) age << 57);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /** Permille of the first 1000 buckets' entries written by the current search. */
+    public int hashfull() {
+        int used = 0;
+        int buckets = Math.min(1000, bucketMask + 1);
+        for (int b = 0; b < buckets; b++) {
+            for (int j = b * BUCKET_LONGS; j < (b + 1) * BUCKET_LONGS; j += 2) {
+                long data = table[j + 1];
+                if (data != 0 && age(data) == age) {
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (buckets * 2);
+    }
+
+    public static int move(long data) {
+        return (int) data;
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 32);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 48) & 0x7F;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 55) & 0x3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> 57) & MAX_AGE;
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_LONGS;
+    }
+}
@@ -0,0 +1,157 @@
+package com.erland.chess.model;
+
+/**
+ * Helpers for 64-bit square sets used by the Board position.
+ * Square 0 is a1, square 7 is h1 and square 63 is h8. The Board grid
+ * (col, row) has row 0 at the top (rank 8), so row 7 maps to rank 1.
+ */
+public final class Bitboard {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+    // PAWN_ATTACKS[color][square] = squares a pawn of that color attacks
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+    // BETWEEN[a][b] = squares strictly between a and b on a shared rank, file or diagonal
+    public static final long[][] BETWEEN = new long[64][64];
+    // LINE[a][b] = the whole rank, file or diagonal through a and b (0 if not aligned)
+    public static final long[][] LINE = new long[64][64];
+
+    private static final int[][] KNIGHT_STEPS = {
+        {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+    };
+    private static final int[][] KING_STEPS = {
+        {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+    };
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = stepAttacks(sq, KNIGHT_STEPS);
+            KING_ATTACKS[sq] = stepAttacks(sq, KING_STEPS);
+            PAWN_ATTACKS[Board.WHITE][sq] = stepAttacks(sq, new int[][] {{-1, 1}, {1, 1}});
+            PAWN_ATTACKS[Board.BLACK][sq] = stepAttacks(sq, new int[][] {{-1, -1}, {1, -1}});
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                initLine(a, b);
+            }
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    public static int square(int col, int row) {
+        return ((7 - row) << 3) | col;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static int row(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static int lsb(long bb) {
+        return Long.numberOfTrailingZeros(bb);
+    }
+
+    public static int count(long bb) {
+        return Long.bitCount(bb);
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return Magic.rookAttacks(square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return Magic.bishopAttacks(square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return Magic.rookAttacks(square, occupied) | Magic.bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Squares attacked by the given piece code standing on square.
+     * Pawns only report their diagonal captures, not their pushes.
+     */
+    public static long attacks(int code, int square, long occupied) {
+        switch (code >> 1) {
+            case Board.PAWN:
+                return PAWN_ATTACKS[code & 1][square];
+            case Board.KNIGHT:
+                return KNIGHT_ATTACKS[square];
+            case Board.BISHOP:
+                return bishopAttacks(square, occupied);
+            case Board.ROOK:
+                return rookAttacks(square, occupied);
+            case Board.QUEEN:
+                return queenAttacks(square, occupied);
+            case Board.KING:
+                return KING_ATTACKS[square];
+            default:
+                return 0L;
+        }
+    }
+
+    private static void initLine(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int df = (b & 7) - (a & 7);
+        int dr = (b >>> 3) - (a >>> 3);
+        if (df != 0 && dr != 0 && Math.abs(df) != Math.abs(dr)) {
+            return;
+        }
+        int stepF = Integer.signum(df);
+        int stepR = Integer.signum(dr);
+
+        // Walk from a towards b for BETWEEN, then across the whole board for LINE
+        long between = 0L;
+        int f = (a & 7) + stepF;
+        int r = (a >>> 3) + stepR;
+        while (f != (b & 7) || r != (b >>> 3)) {
+            between |= 1L << (r * 8 + f);
+            f += stepF;
+            r += stepR;
+        }
+        BETWEEN[a][b] = between;
+
+        long line = 0L;
+        f = a & 7;
+        r = a >>> 3;
+        while (f - stepF >= 0 && f - stepF < 8 && r - stepR >= 0 && r - stepR < 8) {
+            f -= stepF;
+            r -= stepR;
+        }
+        while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+            line |= 1L << (r * 8 + f);
+            f += stepF;
+            r += stepR;
+        }
+        LINE[a][b] = line;
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0L;
+        int file = square & 7;
+        int rank = square >>> 3;
+        for (int[] step : steps) {
+            int f = file + step[0];
+            int r = rank + step[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                attacks |= 1L << (r * 8 + f);
+            }
+        }
+        return attacks;
+    }
+}
@@ -1,14 +1,80 @@
 package com.erland.chess.model;
 
 import com.erland.chess.model.pieces.*;
-import java.awt.Graphics2D;
 import java.util.ArrayList;
-import java.util.Random;
-import java.util.List;
 
 public class Board {
     final int cols = 8;
     final int rows = 8;
+
+    // Colors, piece types and piece codes (code = type * 2 + color)
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int EMPTY = -1;
+    public static final String[] PIECE_NAMES = {"Pawn", "Knight", "Bishop", "Rook", "Queen", "King"};
+
+    // Castling rights bits
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Rights that survive a move touching the square (king or rook moved / rook captured)
+    private static final int[] CASTLING_MASK = new int[64];
+    static {
+        java.util.Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Bitboard.square(0, 7)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Bitboard.square(7, 7)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[Bitboard.square(4, 7)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Bitboard.square(0, 0)] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[Bitboard.square(7, 0)] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[Bitboard.square(4, 0)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    // Bitboard position: one mask per piece code, one per color and all occupied squares
+    public final long[] pieceBB = new long[12];
+    public final long[] colorBB = new long[2];
+    public long occupied = 0L;
+    // Piece code per square (EMPTY if none), indexed by Bitboard square
+    public final int[] mailbox = new int[64];
+
+    public int castlingRights = ALL_CASTLING;
+    // Square a pawn may capture onto en passant, -1 if none
+    public int enPassantSquare = -1;
+    // Plies since the last capture or pawn move, and the full move number
+    public int halfmoveClock = 0;
+    public int fullmoveNumber = 1;
+
+    // Zobrist key of the position, updated with every bitboard change
+    private long hash = 0L;
+    // Zobrist key of the pawns alone, for the evaluation's pawn structure cache
+    private long pawnHash = 0L;
+
+    // Tapered evaluation accumulators (White minus Black), updated with every bitboard change
+    public int mgScore = 0;
+    public int egScore = 0;
+    public int phase = 0;
+
+    // Undo stack for makeMove/unmakeMove, one entry per move made
+    private long[] undoHash = new long[512];
+    private long[] undoPawnHash = new long[512];
+    private int[] undoMove = new int[512];
+    private int[] undoEnPassant = new int[512];
+    private int[] undoCastling = new int[512];
+    private int[] undoHalfmove = new int[512];
+    private int undoCount = 0;
+
+    // Reused buffer for game-level move generation (UI thread only)
+    private final MoveList legalMoves = new MoveList();
+
+    // Piece views for the UI, created lazily from the bitboards by getPiece
     public Piece[][] pieceList = new Piece[cols][rows];
     public Piece selectedPiece;
     
@@ -18,135 +84,602 @@ public class Board {
     public ArrayList<Move> moveHistory = new ArrayList<>();
     public int totalMoves = 0;
     
-    private King whiteKing;
-    private King blackKing;
-    
-    // En passant tracking
-    public Pawn enPassantPawn = null;
-    
     // Check status
     public boolean whiteInCheck = false;
     public boolean blackInCheck = false;
 
     public Board() {
         addPieces();
-        findKings();
+    }
+
+    // Board for fromFen; setFen sets every field itself, so the start position is never built
+    private Board(String fen) {
+        setFen(fen);
+    }
+
+    public static int pieceCode(int type, int color) {
+        return (type << 1) | color;
     }
 
     public void addPieces() {
-        // Black pieces (Top)
-        pieceList[0][0] = new Rook(this, 0, 0, false);
-        pieceList[1][0] = new Knight(this, 1, 0, false);
-        pieceList[2][0] = new Bishop(this, 2, 0, false);
-        pieceList[3][0] = new Queen(this, 3, 0, false);
-        pieceList[4][0] = new King(this, 4, 0, false);
-        pieceList[5][0] = new Bishop(this, 5, 0, false);
-        pieceList[6][0] = new Knight(this, 6, 0, false);
-        pieceList[7][0] = new Rook(this, 7, 0, false);
-        for(int i = 0; i < 8; i++) {
-            pieceList[i][1] = new Pawn(this, i, 1, false);
-        }
-
-        // White pieces (Bottom)
-        pieceList[0][7] = new Rook(this, 0, 7, true);
-        pieceList[1][7] = new Knight(this, 1, 7, true);
-        pieceList[2][7] = new Bishop(this, 2, 7, true);
-        pieceList[3][7] = new Queen(this, 3, 7, true);
-        pieceList[4][7] = new King(this, 4, 7, true);
-        pieceList[5][7] = new Bishop(this, 5, 7, true);
-        pieceList[6][7] = new Knight(this, 6, 7, true);
-        pieceList[7][7] = new Rook(this, 7, 7, true);
+        clearPosition();
+
+        int[] backRank = {ROOK, KNIGHT, BISHOP, QUEEN, KING, BISHOP, KNIGHT, ROOK};
         for(int i = 0; i < 8; i++) {
-            pieceList[i][6] = new Pawn(this, i, 6, true);
+            // Black pieces (Top)
+            putPiece(pieceCode(backRank[i], BLACK), Bitboard.square(i, 0));
+            putPiece(pieceCode(PAWN, BLACK), Bitboard.square(i, 1));
+
+            // White pieces (Bottom)
+            putPiece(pieceCode(PAWN, WHITE), Bitboard.square(i, 6));
+            putPiece(pieceCode(backRank[i], WHITE), Bitboard.square(i, 7));
         }
+
+        castlingRights = ALL_CASTLING;
+        hash = computeHash();
+        pawnHash = computePawnHash();
     }
-    
-    private void findKings() {
-        for(int c = 0; c < 8; c++) {
-            for(int r = 0; r < 8; r++) {
-                Piece p = getPiece(c, r);
-                if(p instanceof King) {
-                    if(p.isWhite) {
-                        whiteKing = (King)p;
-                    } else {
-                        blackKing = (King)p;
-                    }
+
+    private void clearPosition() {
+        java.util.Arrays.fill(pieceBB, 0L);
+        java.util.Arrays.fill(colorBB, 0L);
+        java.util.Arrays.fill(mailbox, EMPTY);
+        occupied = 0L;
+        hash = 0L;
+        pawnHash = 0L;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        pieceList = new Piece[cols][rows];
+        castlingRights = 0;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        undoCount = 0;
+        isWhiteTurn = true;
+    }
+
+    /**
+     * Board set up from a FEN string, e.g.
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+     * The move counters may be left out.
+     */
+    public static Board fromFen(String fen) {
+        return new Board(fen);
+    }
+
+    /**
+     * Sets up the position from a FEN string. Malformed fields, and
+     * positions that cannot arise in a game (not one king each, pawns on
+     * the first or last rank, the side not to move in check, an en passant
+     * square with no pawn that just double-pushed past it), throw
+     * IllegalArgumentException. The move counters may be left out.
+     *
+     * Only called on a fresh Board from fromFen, so a rejected FEN never
+     * leaves a half-built position behind for the caller.
+     */
+    private void setFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 4 || parts.length > 6) {
+            throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+        }
+        if (!parts[1].equals("w") && !parts[1].equals("b")) {
+            throw new IllegalArgumentException("Side to move must be w or b: " + fen);
+        }
+        if (!parts[2].matches("-|K?Q?k?q?")) {
+            throw new IllegalArgumentException("Bad castling field in FEN: " + fen);
+        }
+        // The en passant square is behind a pawn of the side that just moved
+        if (!parts[3].matches(parts[1].equals("w") ? "-|[a-h]6" : "-|[a-h]3")) {
+            throw new IllegalArgumentException("Bad en passant field in FEN: " + fen);
+        }
+        clearPosition();
+
+        // Piece placement, rank 8 first; every rank must add up to exactly 8 squares
+        int row = 0;
+        int col = 0;
+        for (char ch : parts[0].toCharArray()) {
+            if (ch == '/') {
+                if (col != 8 || ++row > 7) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+                if (col > 8) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+            } else {
+                int type = "pnbrqk".indexOf(Character.toLowerCase(ch));
+                if (type < 0 || col > 7) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
                 }
+                putPiece(pieceCode(type, Character.isUpperCase(ch) ? WHITE : BLACK), Bitboard.square(col, row));
+                col++;
+            }
+        }
+        if (row != 7 || col != 8 || Bitboard.count(pieceBB[pieceCode(KING, WHITE)]) != 1
+            || Bitboard.count(pieceBB[pieceCode(KING, BLACK)]) != 1) {
+            throw new IllegalArgumentException("FEN must describe 8 ranks with one king per side: " + fen);
+        }
+        if (((pieceBB[pieceCode(PAWN, WHITE)] | pieceBB[pieceCode(PAWN, BLACK)])
+                & (Bitboard.RANK_1 | Bitboard.RANK_8)) != 0) {
+            throw new IllegalArgumentException("Pawns cannot stand on the first or last rank: " + fen);
+        }
+
+        isWhiteTurn = parts[1].equals("w");
+        if (isKingInCheck(!isWhiteTurn)) {
+            throw new IllegalArgumentException("Side not to move is in check: " + fen);
+        }
+
+        for (char ch : parts[2].toCharArray()) {
+            switch (ch) {
+                case 'K': castlingRights |= WHITE_KINGSIDE; break;
+                case 'Q': castlingRights |= WHITE_QUEENSIDE; break;
+                case 'k': castlingRights |= BLACK_KINGSIDE; break;
+                case 'q': castlingRights |= BLACK_QUEENSIDE; break;
+                default: break;
+            }
+        }
+        // Drop rights whose king or rook is not on its home square
+        for (int sq : new int[] {0, 4, 7, 56, 60, 63}) {
+            int expected = pieceCode(sq == 4 || sq == 60 ? KING : ROOK, sq < 8 ? WHITE : BLACK);
+            if (mailbox[sq] != expected) {
+                castlingRights &= CASTLING_MASK[sq];
+            }
+        }
+
+        // Keep the en passant square only if a pawn can actually capture there (as makeMove does)
+        if (!parts[3].equals("-")) {
+            int ep = (parts[3].charAt(0) - 'a') + 8 * (parts[3].charAt(1) - '1');
+            int us = isWhiteTurn ? WHITE : BLACK;
+            // The enemy pawn passed over ep from the square behind it and now stands in front of it
+            int behind = isWhiteTurn ? ep + 8 : ep - 8;
+            int front = isWhiteTurn ? ep - 8 : ep + 8;
+            if (mailbox[ep] != EMPTY || mailbox[behind] != EMPTY || mailbox[front] != pieceCode(PAWN, us ^ 1)) {
+                throw new IllegalArgumentException("En passant square without a double-pushed pawn in FEN: " + fen);
+            }
+            if ((Bitboard.PAWN_ATTACKS[us ^ 1][ep] & pieceBB[pieceCode(PAWN, us)]) != 0) {
+                enPassantSquare = ep;
+            }
+        }
+
+        // NumberFormatException is an IllegalArgumentException too
+        if (parts.length > 4) {
+            halfmoveClock = Integer.parseInt(parts[4]);
+        }
+        if (parts.length > 5) {
+            fullmoveNumber = Integer.parseInt(parts[5]);
+        }
+        if (halfmoveClock < 0 || fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Bad move counters in FEN: " + fen);
+        }
+        hash = computeHash();
+        pawnHash = computePawnHash();
+
+        // Reset game-level state for the new position
+        selectedPiece = null;
+        moveHistory.clear();
+        totalMoves = 0;
+        gameState = GameState.PLAYING;
+        whiteInCheck = isKingInCheck(true);
+        blackInCheck = isKingInCheck(false);
+        if (!hasValidMoves()) {
+            boolean inCheck = isWhiteTurn ? whiteInCheck : blackInCheck;
+            gameState = !inCheck ? GameState.STALEMATE
+                : (isWhiteTurn ? GameState.BLACK_WON : GameState.WHITE_WON);
+        }
+    }
+
+    /**
+     * FEN string of the current position, including castling rights, the
+     * en passant square and both move counters. The en passant square is
+     * only written when a pawn can actually capture there.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < rows; row++) {
+            int empty = 0;
+            for (int col = 0; col < cols; col++) {
+                int code = mailbox[Bitboard.square(col, row)];
+                if (code == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char ch = "pnbrqk".charAt(code >> 1);
+                fen.append((code & 1) == WHITE ? Character.toUpperCase(ch) : ch);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < rows - 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(isWhiteTurn ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) fen.append('K');
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) fen.append('Q');
+            if ((castlingRights & BLACK_KINGSIDE) != 0) fen.append('k');
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) fen.append('q');
+        }
+
+        fen.append(' ');
+        if (enPassantSquare >= 0) {
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        } else {
+            fen.append('-');
+        }
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * 64-bit Zobrist key of the position: pieces, side to move, castling
+     * rights and en passant file.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    // Full recomputation of the Zobrist key, used after setting up a position
+    public long computeHash() {
+        long key = 0L;
+        long pieces = occupied;
+        while (pieces != 0) {
+            int sq = Bitboard.lsb(pieces);
+            pieces &= pieces - 1;
+            key ^= Zobrist.PIECE_SQUARE[mailbox[sq]][sq];
+        }
+        key ^= Zobrist.CASTLING[castlingRights];
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        if (!isWhiteTurn) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    /**
+     * Zobrist key of the pawns of both colors only; positions with the
+     * same pawn skeleton share it whatever the other pieces do.
+     */
+    public long pawnHash() {
+        return pawnHash;
+    }
+
+    public long computePawnHash() {
+        long key = 0L;
+        for (int color = WHITE; color <= BLACK; color++) {
+            int code = pieceCode(PAWN, color);
+            long pawns = pieceBB[code];
+            while (pawns != 0) {
+                int sq = Bitboard.lsb(pawns);
+                pawns &= pawns - 1;
+                key ^= Zobrist.PIECE_SQUARE[code][sq];
+            }
+        }
+        return key;
+    }
+
+    // --- Bitboard primitives ---
+
+    public void putPiece(int code, int square) {
+        long b = 1L << square;
+        pieceBB[code] |= b;
+        colorBB[code & 1] |= b;
+        occupied |= b;
+        mailbox[square] = code;
+        hash ^= Zobrist.PIECE_SQUARE[code][square];
+        pawnHash ^= Zobrist.PAWN_SQUARE[code][square];
+        mgScore += PieceSquareTables.MG[code][square];
+        egScore += PieceSquareTables.EG[code][square];
+        phase += PieceSquareTables.PHASE[code >> 1];
+    }
+
+    public void removePiece(int square) {
+        int code = mailbox[square];
+        long b = 1L << square;
+        pieceBB[code] &= ~b;
+        colorBB[code & 1] &= ~b;
+        occupied &= ~b;
+        mailbox[square] = EMPTY;
+        hash ^= Zobrist.PIECE_SQUARE[code][square];
+        pawnHash ^= Zobrist.PAWN_SQUARE[code][square];
+        mgScore -= PieceSquareTables.MG[code][square];
+        egScore -= PieceSquareTables.EG[code][square];
+        phase -= PieceSquareTables.PHASE[code >> 1];
+    }
+
+    public void shiftPiece(int from, int to) {
+        int code = mailbox[from];
+        long b = (1L << from) | (1L << to);
+        pieceBB[code] ^= b;
+        colorBB[code & 1] ^= b;
+        occupied ^= b;
+        mailbox[from] = EMPTY;
+        mailbox[to] = code;
+        hash ^= Zobrist.PIECE_SQUARE[code][from] ^ Zobrist.PIECE_SQUARE[code][to];
+        pawnHash ^= Zobrist.PAWN_SQUARE[code][from] ^ Zobrist.PAWN_SQUARE[code][to];
+        mgScore += PieceSquareTables.MG[code][to] - PieceSquareTables.MG[code][from];
+        egScore += PieceSquareTables.EG[code][to] - PieceSquareTables.EG[code][from];
+    }
+
+    public int kingSquare(int color) {
+        long king = pieceBB[pieceCode(KING, color)];
+        return king == 0 ? -1 : Bitboard.lsb(king);
+    }
+
+    /**
+     * Plays a packed move from the generator. The move must be legal (or
+     * at least pseudo-legal) in the current position. Only the bitboard
+     * position changes; piece views are left alone.
+     */
+    public void makeMove(int move) {
+        if (undoCount == undoMove.length) {
+            growUndoStack();
+        }
+        undoHash[undoCount] = hash;
+        undoPawnHash[undoCount] = pawnHash;
+        undoMove[undoCount] = move;
+        undoEnPassant[undoCount] = enPassantSquare;
+        undoCastling[undoCount] = castlingRights;
+        undoHalfmove[undoCount] = halfmoveClock;
+        undoCount++;
+
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = Moves.piece(move);
+        int captured = Moves.captured(move);
+
+        if (captured != EMPTY) {
+            removePiece(Moves.isEnPassant(move) ? to + (from < to ? -8 : 8) : to);
+        }
+        shiftPiece(from, to);
+        if (Moves.isPromotion(move)) {
+            removePiece(to);
+            putPiece(pieceCode(Moves.promotion(move), piece & 1), to);
+        }
+        if (Moves.isCastling(move)) {
+            // Rook jumps from the corner to the square the king passed
+            if (to > from) {
+                shiftPiece(to + 1, to - 1);
+            } else {
+                shiftPiece(to - 2, to + 1);
+            }
+        }
+
+        hash ^= Zobrist.CASTLING[castlingRights];
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        hash ^= Zobrist.CASTLING[castlingRights];
+
+        // The en passant square is only kept when an enemy pawn can actually capture,
+        // so transpositions hash the same whether or not a double push led there
+        if (enPassantSquare >= 0) {
+            hash ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        enPassantSquare = -1;
+        if ((move & Moves.DOUBLE_PUSH) != 0) {
+            int square = (from + to) / 2;
+            if ((Bitboard.PAWN_ATTACKS[piece & 1][square] & pieceBB[pieceCode(PAWN, (piece & 1) ^ 1)]) != 0) {
+                enPassantSquare = square;
+                hash ^= Zobrist.EN_PASSANT_FILE[square & 7];
+            }
+        }
+        halfmoveClock = (piece >> 1) == PAWN || captured != EMPTY ? 0 : halfmoveClock + 1;
+        if ((piece & 1) == BLACK) {
+            fullmoveNumber++;
+        }
+        isWhiteTurn = !isWhiteTurn;
+        hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * Takes back the last move played with makeMove.
+     */
+    public void unmakeMove() {
+        undoCount--;
+        int move = undoMove[undoCount];
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = Moves.piece(move);
+        int captured = Moves.captured(move);
+
+        isWhiteTurn = !isWhiteTurn;
+        if ((piece & 1) == BLACK) {
+            fullmoveNumber--;
+        }
+
+        if (Moves.isCastling(move)) {
+            if (to > from) {
+                shiftPiece(to - 1, to + 1);
+            } else {
+                shiftPiece(to + 1, to - 2);
             }
         }
+        if (Moves.isPromotion(move)) {
+            removePiece(to);
+            putPiece(piece, from);
+        } else {
+            shiftPiece(to, from);
+        }
+        if (captured != EMPTY) {
+            putPiece(captured, Moves.isEnPassant(move) ? to + (from < to ? -8 : 8) : to);
+        }
+
+        enPassantSquare = undoEnPassant[undoCount];
+        castlingRights = undoCastling[undoCount];
+        halfmoveClock = undoHalfmove[undoCount];
+        hash = undoHash[undoCount];
+        pawnHash = undoPawnHash[undoCount];
+    }
+
+    // Number of moves that unmakeMove can take back
+    public int undoDepth() {
+        return undoCount;
+    }
+
+    private void growUndoStack() {
+        int size = undoMove.length * 2;
+        undoHash = java.util.Arrays.copyOf(undoHash, size);
+        undoPawnHash = java.util.Arrays.copyOf(undoPawnHash, size);
+        undoMove = java.util.Arrays.copyOf(undoMove, size);
+        undoEnPassant = java.util.Arrays.copyOf(undoEnPassant, size);
+        undoCastling = java.util.Arrays.copyOf(undoCastling, size);
+        undoHalfmove = java.util.Arrays.copyOf(undoHalfmove, size);
     }
 
     public Piece getPiece(int col, int row) {
         if (col < 0 || col > 7 || row < 0 || row > 7) {
             return null;
         }
-        return pieceList[col][row];
+        int code = mailbox[Bitboard.square(col, row)];
+        if (code == EMPTY) {
+            pieceList[col][row] = null;
+            return null;
+        }
+        Piece view = pieceList[col][row];
+        if (view == null || view.code() != code) {
+            view = createView(code, col, row);
+            pieceList[col][row] = view;
+        }
+        return view;
+    }
+
+    private Piece createView(int code, int col, int row) {
+        boolean isWhite = (code & 1) == WHITE;
+        switch (code >> 1) {
+            case PAWN:
+                return new Pawn(this, col, row, isWhite);
+            case KNIGHT:
+                return new Knight(this, col, row, isWhite);
+            case BISHOP:
+                return new Bishop(this, col, row, isWhite);
+            case ROOK:
+                return new Rook(this, col, row, isWhite);
+            case QUEEN:
+                return new Queen(this, col, row, isWhite);
+            default:
+                return new King(this, col, row, isWhite);
+        }
+    }
+
+    // Move a piece view along with its bitboard move (game level only)
+    private void moveView(int oldCol, int oldRow, int newCol, int newRow) {
+        Piece view = pieceList[oldCol][oldRow];
+        pieceList[oldCol][oldRow] = null;
+        pieceList[newCol][newRow] = view;
+        if (view != null) {
+            view.col = newCol;
+            view.row = newRow;
+            view.hasMoved = true;
+        }
+    }
+
+    public void generateLegalMoves(MoveList list) {
+        MoveGenerator.generateLegal(this, list);
+    }
+
+    public void generateCaptures(MoveList list) {
+        MoveGenerator.generateCaptures(this, list);
+    }
+
+    /**
+     * Legal move from one square to another for the side to move, or
+     * Moves.NONE. A pawn reaching the last rank promotes to the given
+     * piece type (KNIGHT..QUEEN).
+     */
+    public int findLegalMove(int fromCol, int fromRow, int toCol, int toRow, int promotion) {
+        if (toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7) {
+            return Moves.NONE;
+        }
+        int from = Bitboard.square(fromCol, fromRow);
+        int to = Bitboard.square(toCol, toRow);
+        generateLegalMoves(legalMoves);
+        for (int i = 0; i < legalMoves.size; i++) {
+            int move = legalMoves.moves[i];
+            if (Moves.from(move) == from && Moves.to(move) == to
+                && (!Moves.isPromotion(move) || Moves.promotion(move) == promotion)) {
+                return move;
+            }
+        }
+        return Moves.NONE;
+    }
+
+    /**
+     * Squares the piece on (col, row) can legally move to, as a bitboard.
+     * Empty if the square holds no piece of the side to move.
+     */
+    public long legalTargets(int col, int row) {
+        int from = Bitboard.square(col, row);
+        generateLegalMoves(legalMoves);
+        long targets = 0L;
+        for (int i = 0; i < legalMoves.size; i++) {
+            int move = legalMoves.moves[i];
+            if (Moves.from(move) == from) {
+                targets |= Bitboard.bit(Moves.to(move));
+            }
+        }
+        return targets;
     }
 
     public boolean movePiece(int newCol, int newRow) {
+        return movePiece(newCol, newRow, QUEEN);
+    }
+
+    /**
+     * Moves the selected piece; a pawn reaching the last rank becomes the
+     * given piece type (KNIGHT..QUEEN) as part of the same move.
+     */
+    public boolean movePiece(int newCol, int newRow, int promotion) {
         if (selectedPiece == null || gameState != GameState.PLAYING) {
             return false;
         }
         
-        if (selectedPiece.canMove(newCol, newRow)) {
-            // Check if move would leave king in check
-            if (wouldBeInCheckAfterMove(selectedPiece, newCol, newRow)) {
-                return false;
-            }
-            
+        int legalMove = findLegalMove(selectedPiece.col, selectedPiece.row, newCol, newRow, promotion);
+        if (legalMove != Moves.NONE) {
             // Record move details
-            Piece captured = pieceList[newCol][newRow];
+            Piece captured = getPiece(newCol, newRow);
             int oldCol = selectedPiece.col;
             int oldRow = selectedPiece.row;
-            boolean isEnPassant = false;
-            boolean isCastling = false;
-            Piece castlingRook = null;
+            int from = Moves.from(legalMove);
+            int to = Moves.to(legalMove);
+            boolean isEnPassant = Moves.isEnPassant(legalMove);
+            boolean isCastling = Moves.isCastling(legalMove);
             int rookOldCol = -1;
             int rookNewCol = -1;
             
-            // Check for en passant capture
-            if (selectedPiece instanceof Pawn && newCol != oldCol && captured == null) {
-                if (enPassantPawn != null && enPassantPawn.col == newCol) {
-                    captured = enPassantPawn;
-                    pieceList[enPassantPawn.col][enPassantPawn.row] = null;
-                    isEnPassant = true;
-                }
+            // En passant captures the pawn beside the moving pawn
+            if (isEnPassant) {
+                captured = getPiece(newCol, oldRow);
+                pieceList[newCol][oldRow] = null;
             }
             
-            // Check for castling
-            if (selectedPiece instanceof King && Math.abs(newCol - oldCol) == 2) {
-                isCastling = true;
+            // Castling also moves the rook
+            if (isCastling) {
                 if (newCol == 6) { // Kingside castling
-                    castlingRook = getPiece(7, oldRow);
                     rookOldCol = 7;
                     rookNewCol = 5;
-                } else if (newCol == 2) { // Queenside castling
-                    castlingRook = getPiece(0, oldRow);
+                } else { // Queenside castling
                     rookOldCol = 0;
                     rookNewCol = 3;
                 }
-                
-                if (castlingRook != null) {
-                    pieceList[rookOldCol][oldRow] = null;
-                    pieceList[rookNewCol][oldRow] = castlingRook;
-                    castlingRook.col = rookNewCol;
-                    castlingRook.hasMoved = true;
-                }
+                getPiece(rookOldCol, oldRow);
+                moveView(rookOldCol, oldRow, rookNewCol, oldRow);
             }
             
             // Execute move
-            pieceList[oldCol][oldRow] = null;
-            pieceList[newCol][newRow] = selectedPiece;
-            selectedPiece.col = newCol;
-            selectedPiece.row = newRow;
-            selectedPiece.hasMoved = true;
-            
-            // Reset en passant if not a pawn double move
-            Pawn newEnPassantPawn = null;
-            if (selectedPiece instanceof Pawn && Math.abs(newRow - oldRow) == 2) {
-                newEnPassantPawn = (Pawn) selectedPiece;
-            }
-            enPassantPawn = newEnPassantPawn;
+            makeMove(legalMove);
+            pieceList[oldCol][oldRow] = selectedPiece;
+            moveView(oldCol, oldRow, newCol, newRow);
             
             // Create move record
             Move move = new Move(selectedPiece, oldCol, oldRow, newCol, newRow, captured);
@@ -156,12 +689,15 @@ public class Board {
                 move.castlingRookOldCol = rookOldCol;
                 move.castlingRookNewCol = rookNewCol;
             }
+            // The promoted piece's view is created by getPiece from the mailbox
+            if (Moves.isPromotion(legalMove)) {
+                move.promotionPiece = PIECE_NAMES[Moves.promotion(legalMove)];
+            }
             
             moveHistory.add(move);
             totalMoves++;
             
-            // Switch turn and check game state
-            isWhiteTurn = !isWhiteTurn;
+            // Check game state for the side now to move
             updateCheckStatus();
             checkGameState();
             
@@ -172,192 +708,84 @@ public class Board {
         return false;
     }
 
-    public void promotePawn(int col, int row, String type) {
-        Piece pawn = getPiece(col, row);
-        if (pawn == null) return;
-        
-        boolean isWhite = pawn.isWhite;
-        Piece newPiece = null;
-        
-        // Buat perwira baru sesuai pilihan
-        switch (type) {
-            case "Queen":
-                newPiece = new Queen(this, col, row, isWhite);
-                break;
-            case "Rook":
-                newPiece = new Rook(this, col, row, isWhite);
-                break;
-            case "Bishop":
-                newPiece = new Bishop(this, col, row, isWhite);
-                break;
-            case "Knight":
-                newPiece = new Knight(this, col, row, isWhite);
-                break;
-            default:
-                newPiece = new Queen(this, col, row, isWhite); // Default ke Queen
-                break;
-        }
-        
-        if (newPiece != null) {
-            // Ganti pion dengan perwira baru
-            pieceList[col][row] = newPiece;
-            newPiece.hasMoved = true;
-            
-            // Update history move terakhir untuk mencatat promosi ini
-            // (Penting agar saat dikirim via jaringan, lawan tahu ini promosi apa)
-            if (!moveHistory.isEmpty()) {
-                moveHistory.get(moveHistory.size() - 1).promotionPiece = type;
+    // Piece type for a promotion name as shown in the dialog ("Queen", "Knight", ...); queen if unknown
+    public static int promotionType(String name) {
+        for (int type = KNIGHT; type <= QUEEN; type++) {
+            if (PIECE_NAMES[type].equals(name)) {
+                return type;
             }
-            
-            // Cek skak lagi karena perwira baru mungkin menyebabkan skak
-            updateCheckStatus();
-            checkGameState();
         }
+        return QUEEN;
     }
 
-    public void performComputerMove() {
-        if(gameState != GameState.PLAYING) {
-            return;
-        }
-        
-        System.out.println("Computer is thinking...");
-        
-        // Collect all black pieces
-        List<Piece> blackPieces = new ArrayList<>();
-        for(int c = 0; c < 8; c++) {
-            for(int r = 0; r < 8; r++) {
-                Piece p = getPiece(c, r);
-                if(p != null && !p.isWhite) {
-                    blackPieces.add(p);
-                }
-            }
-        }
-
-        // Collect all valid moves that don't leave king in check
-        List<int[]> validMoves = new ArrayList<>();
-        for(Piece p : blackPieces) {
-            for(int c = 0; c < 8; c++) {
-                for(int r = 0; r < 8; r++) {
-                    if(p.canMove(c, r) && !wouldBeInCheckAfterMove(p, c, r)) {
-                        validMoves.add(new int[]{p.col, p.row, c, r});
-                    }
-                }
-            }
-        }
-        
-        if(validMoves.isEmpty()) {
-            System.out.println("Computer has no valid moves!");
+    /**
+     * Plays the computer's chosen move (a packed move from the engine)
+     * with the same bookkeeping as a move made on the board by hand.
+     */
+    public void performComputerMove(int chosenMove) {
+        if(gameState != GameState.PLAYING || chosenMove == Moves.NONE) {
             return;
         }
         
-        // Prioritize captures
-        List<int[]> captureMoves = new ArrayList<>();
-        for(int[] move : validMoves) {
-            Piece target = getPiece(move[2], move[3]);
-            if(target != null || (getPiece(move[0], move[1]) instanceof Pawn && 
-                move[2] != move[0] && target == null && enPassantPawn != null)) {
-                captureMoves.add(move);
-            }
-        }
-        
-        Random rand = new Random();
-        int[] chosenMove = captureMoves.isEmpty() ? 
-            validMoves.get(rand.nextInt(validMoves.size())) :
-            captureMoves.get(rand.nextInt(captureMoves.size()));
-        
-        Piece p = getPiece(chosenMove[0], chosenMove[1]);
+        int fromCol = Bitboard.col(Moves.from(chosenMove));
+        int fromRow = Bitboard.row(Moves.from(chosenMove));
+        int toCol = Bitboard.col(Moves.to(chosenMove));
+        int toRow = Bitboard.row(Moves.to(chosenMove));
+        Piece p = getPiece(fromCol, fromRow);
             if(p != null) {
                 selectedPiece = p;
-                boolean moved = movePiece(chosenMove[2], chosenMove[3]);
+                int promotion = Moves.isPromotion(chosenMove) ? Moves.promotion(chosenMove) : QUEEN;
+                boolean moved = movePiece(toCol, toRow, promotion);
                 
                 // LOGIKA PROMOSI KOMPUTER
-                if (moved && p instanceof Pawn) {
-                    int destRow = chosenMove[3];
-                    // Jika pion hitam sampai baris 7 (bawah) atau pion putih sampai baris 0 (atas)
-                    if (destRow == 0 || destRow == 7) {
-                        promotePawn(chosenMove[2], destRow, "Queen");
-                        System.out.println("Computer promoted Pawn to Queen!");
-                    }
+                if (moved && Moves.isPromotion(chosenMove)) {
+                    System.out.println("Computer promoted Pawn to " + PIECE_NAMES[promotion] + "!");
                 }
 
                 System.out.println("Computer moved: " + p.name + " from " + 
-                                (char)('a' + chosenMove[0]) + (8 - chosenMove[1]) + 
-                                " to " + (char)('a' + chosenMove[2]) + (8 - chosenMove[3]));
+                                (char)('a' + fromCol) + (8 - fromRow) + 
+                                " to " + (char)('a' + toCol) + (8 - toRow));
             }
     }
     
     public boolean isKingInCheck(boolean isWhite) {
-        King king = isWhite ? whiteKing : blackKing;
-        if (king == null || pieceList[king.col][king.row] != king) {
-            findKings();
-            king = isWhite ? whiteKing : blackKing;
-        }
-
-        if (king == null) return false;
-        
-        // Check if any enemy piece can capture the king
-        for (int c = 0; c < 8; c++) {
-            for (int r = 0; r < 8; r++) {
-                Piece p = getPiece(c, r);
-                
-                // Jika ada bidak lawan
-                if (p != null && p.isWhite != isWhite) {
-                    
-                    // Khusus Pion (serangan diagonal)
-                    if (p instanceof Pawn) {
-                        int direction = p.isWhite ? -1 : 1;
-                        // Cek serangan pion ke kiri dan kanan diagonal
-                        if (king.row == p.row + direction && 
-                        (Math.abs(king.col - p.col) == 1)) {
-                            return true;
-                        }
-                    }
-                    // Untuk perwira lain (Bishop, Rook, Queen, Knight, King)
-                    else {
-                        // Cek apakah bidak p BISA memakan Raja di posisinya sekarang
-                        if (p.isValidMovement(king.col, king.row)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+        int color = isWhite ? WHITE : BLACK;
+        int kingSquare = kingSquare(color);
+        return kingSquare >= 0 && isSquareAttacked(kingSquare, color ^ 1);
     }
     
-    public boolean wouldBeInCheckAfterMove(Piece piece, int newCol, int newRow) {
-        // Simulate move
-        int oldCol = piece.col;
-        int oldRow = piece.row;
-        Piece capturedPiece = getPiece(newCol, newRow);
-        Piece enPassantCaptured = null;
-        
-        // Handle en passant
-        if (piece instanceof Pawn && newCol != oldCol && capturedPiece == null) {
-            if (enPassantPawn != null && enPassantPawn.col == newCol) {
-                enPassantCaptured = enPassantPawn;
-                pieceList[enPassantPawn.col][enPassantPawn.row] = null;
-            }
-        }
-        
-        pieceList[oldCol][oldRow] = null;
-        pieceList[newCol][newRow] = piece;
-        piece.col = newCol;
-        piece.row = newRow;
-        
-        boolean inCheck = isKingInCheck(piece.isWhite);
-        
-        // Undo move
-        pieceList[oldCol][oldRow] = piece;
-        pieceList[newCol][newRow] = capturedPiece;
-        piece.col = oldCol;
-        piece.row = oldRow;
-        
-        if (enPassantCaptured != null) {
-            pieceList[enPassantCaptured.col][enPassantCaptured.row] = enPassantCaptured;
+    /**
+     * True if any piece of byColor attacks the square. Works outward from
+     * the square: a piece attacks it exactly when the same piece standing
+     * on the square would attack the piece (pawns use the other color's
+     * capture pattern).
+     */
+    public boolean isSquareAttacked(int square, int byColor) {
+        return isSquareAttacked(square, byColor, occupied);
+    }
+    
+    // Same test against a hypothetical occupancy (e.g. with the king lifted off the board)
+    public boolean isSquareAttacked(int square, int byColor, long occupied) {
+        if ((Bitboard.PAWN_ATTACKS[byColor ^ 1][square] & pieceBB[pieceCode(PAWN, byColor)]) != 0
+            || (Bitboard.KNIGHT_ATTACKS[square] & pieceBB[pieceCode(KNIGHT, byColor)]) != 0
+            || (Bitboard.KING_ATTACKS[square] & pieceBB[pieceCode(KING, byColor)]) != 0) {
+            return true;
         }
-        
-        return inCheck;
+        long queens = pieceBB[pieceCode(QUEEN, byColor)];
+        long diagonal = pieceBB[pieceCode(BISHOP, byColor)] | queens;
+        long straight = pieceBB[pieceCode(ROOK, byColor)] | queens;
+        return (diagonal != 0 && (Bitboard.bishopAttacks(square, occupied) & diagonal) != 0)
+            || (straight != 0 && (Bitboard.rookAttacks(square, occupied) & straight) != 0);
+    }
+    
+    // All pieces of byColor attacking the square
+    public long attackersTo(int square, int byColor) {
+        long queens = pieceBB[pieceCode(QUEEN, byColor)];
+        return (Bitboard.PAWN_ATTACKS[byColor ^ 1][square] & pieceBB[pieceCode(PAWN, byColor)])
+            | (Bitboard.KNIGHT_ATTACKS[square] & pieceBB[pieceCode(KNIGHT, byColor)])
+            | (Bitboard.KING_ATTACKS[square] & pieceBB[pieceCode(KING, byColor)])
+            | (Bitboard.bishopAttacks(square, occupied) & (pieceBB[pieceCode(BISHOP, byColor)] | queens))
+            | (Bitboard.rookAttacks(square, occupied) & (pieceBB[pieceCode(ROOK, byColor)] | queens));
     }
     
     private void updateCheckStatus() {
@@ -374,7 +802,7 @@ public class Board {
     
     private void checkGameState() {
         boolean inCheck = isKingInCheck(isWhiteTurn);
-        boolean hasValidMove = hasValidMoves(isWhiteTurn);
+        boolean hasValidMove = hasValidMoves();
         
         if(inCheck && !hasValidMove) {
             gameState = isWhiteTurn ? GameState.BLACK_WON : GameState.WHITE_WON;
@@ -385,22 +813,9 @@ public class Board {
         }
     }
     
-    private boolean hasValidMoves(boolean isWhite) {
-        for(int c = 0; c < 8; c++) {
-            for(int r = 0; r < 8; r++) {
-                Piece p = getPiece(c, r);
-                if(p != null && p.isWhite == isWhite) {
-                    for(int tc = 0; tc < 8; tc++) {
-                        for(int tr = 0; tr < 8; tr++) {
-                            if(p.canMove(tc, tr) && !wouldBeInCheckAfterMove(p, tc, tr)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+    private boolean hasValidMoves() {
+        generateLegalMoves(legalMoves);
+        return !legalMoves.isEmpty();
     }
     
     public void surrender(boolean whiteResigns) {
@@ -412,18 +827,6 @@ public class Board {
         return totalMoves <= 1;
     }
 
-    public void draw(Graphics2D g2, int size) {
-        int tileSize = size / 8;
-        for (int c = 0; c < cols; c++) {
-            for (int r = 0; r < rows; r++) {
-                Piece p = pieceList[c][r];
-                if (p != null) {
-                    p.draw(g2, size);
-                }
-            }
-        }
-    }
-    
     public enum GameState {
         PLAYING, WHITE_WON, BLACK_WON, STALEMATE, CANCELLED
     }
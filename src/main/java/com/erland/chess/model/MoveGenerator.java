@@ -0,0 +1,230 @@
+package com.erland.chess.model;
+
+/**
+ * Legal move generator over the Board bitboards.
+ * Moves are written as packed ints (see Moves) into a caller-supplied
+ * MoveList, so generation creates no objects.
+ *
+ * Checkers, pinned pieces and the check-evasion mask are computed once
+ * per position, so only legal moves are emitted and no move has to be
+ * played and taken back to test it.
+ */
+public final class MoveGenerator {
+    private static final int[] PROMOTIONS = {Board.QUEEN, Board.ROOK, Board.BISHOP, Board.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Clears the list and fills it with every legal move for the side to move.
+     */
+    public static void generateLegal(Board board, MoveList list) {
+        generate(board, list, false);
+    }
+
+    /**
+     * Clears the list and fills it with the legal captures and promotions
+     * only (including en passant), as needed by a quiescence search.
+     */
+    public static void generateCaptures(Board board, MoveList list) {
+        generate(board, list, true);
+    }
+
+    private static void generate(Board board, MoveList list, boolean capturesOnly) {
+        list.clear();
+        int us = board.isWhiteTurn ? Board.WHITE : Board.BLACK;
+        int them = us ^ 1;
+        long own = board.colorBB[us];
+        long occupied = board.occupied;
+        int king = board.kingSquare(us);
+        if (king < 0) {
+            return;
+        }
+
+        // King moves: the destination must stay safe once the king has left its square
+        int kingCode = Board.pieceCode(Board.KING, us);
+        long kingTargets = Bitboard.KING_ATTACKS[king] & ~own;
+        // Captures-only generation restricts every destination to enemy pieces (pawns aside)
+        long targetMask = capturesOnly ? board.colorBB[them] : -1L;
+        kingTargets &= targetMask;
+        long withoutKing = occupied ^ Bitboard.bit(king);
+        while (kingTargets != 0) {
+            int to = Bitboard.lsb(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (!board.isSquareAttacked(to, them, withoutKing)) {
+                list.add(Moves.encode(king, to, kingCode, board.mailbox[to], 0, 0));
+            }
+        }
+
+        long checkers = board.attackersTo(king, them);
+        if (Bitboard.count(checkers) > 1) {
+            // Double check: only the king can move
+            return;
+        }
+
+        // In check, other pieces must capture the checker or block between it and the king
+        long checkMask = -1L;
+        if (checkers != 0) {
+            int checker = Bitboard.lsb(checkers);
+            checkMask = checkers | Bitboard.BETWEEN[king][checker];
+        }
+        long pinned = pinnedPieces(board, us, king);
+
+        generatePawnMoves(board, list, us, king, checkMask, pinned, capturesOnly);
+
+        for (int type = Board.KNIGHT; type <= Board.QUEEN; type++) {
+            int code = Board.pieceCode(type, us);
+            long pieces = board.pieceBB[code];
+            while (pieces != 0) {
+                int from = Bitboard.lsb(pieces);
+                pieces &= pieces - 1;
+                long targets = Bitboard.attacks(code, from, occupied) & ~own & checkMask & targetMask;
+                if ((pinned & Bitboard.bit(from)) != 0) {
+                    targets &= Bitboard.LINE[king][from];
+                }
+                while (targets != 0) {
+                    int to = Bitboard.lsb(targets);
+                    targets &= targets - 1;
+                    list.add(Moves.encode(from, to, code, board.mailbox[to], 0, 0));
+                }
+            }
+        }
+
+        if (checkers == 0 && !capturesOnly) {
+            generateCastling(board, list, us);
+        }
+    }
+
+    /**
+     * Own pieces that are the only blocker between the king and an enemy
+     * slider on the same line.
+     */
+    public static long pinnedPieces(Board board, int us, int king) {
+        int them = us ^ 1;
+        long queens = board.pieceBB[Board.pieceCode(Board.QUEEN, them)];
+        long snipers = (Bitboard.rookAttacks(king, 0L)
+                & (board.pieceBB[Board.pieceCode(Board.ROOK, them)] | queens))
+            | (Bitboard.bishopAttacks(king, 0L)
+                & (board.pieceBB[Board.pieceCode(Board.BISHOP, them)] | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Bitboard.lsb(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboard.BETWEEN[king][sniper] & board.occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.colorBB[us];
+            }
+        }
+        return pinned;
+    }
+
+    private static void generatePawnMoves(Board board, MoveList list, int us, int king,
+                                          long checkMask, long pinned, boolean capturesOnly) {
+        int code = Board.pieceCode(Board.PAWN, us);
+        int forward = us == Board.WHITE ? 8 : -8;
+        long startRank = us == Board.WHITE ? Bitboard.RANK_1 << 8 : Bitboard.RANK_8 >>> 8;
+        long promotionRank = us == Board.WHITE ? Bitboard.RANK_8 : Bitboard.RANK_1;
+        long empty = ~board.occupied;
+        long enemy = board.colorBB[us ^ 1];
+
+        long pawns = board.pieceBB[code];
+        while (pawns != 0) {
+            int from = Bitboard.lsb(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask;
+            if ((pinned & Bitboard.bit(from)) != 0) {
+                allowed &= Bitboard.LINE[king][from];
+            }
+
+            // Pushes (only promotions when generating captures)
+            int to = from + forward;
+            if ((empty & Bitboard.bit(to)) != 0) {
+                if ((allowed & Bitboard.bit(to)) != 0
+                    && (!capturesOnly || (promotionRank & Bitboard.bit(to)) != 0)) {
+                    addPawnMove(list, from, to, code, Board.EMPTY, promotionRank);
+                }
+                int twoStep = to + forward;
+                if (!capturesOnly && (startRank & Bitboard.bit(from)) != 0
+                    && (empty & allowed & Bitboard.bit(twoStep)) != 0) {
+                    list.add(Moves.encode(from, twoStep, code, Board.EMPTY, 0, Moves.DOUBLE_PUSH));
+                }
+            }
+
+            // Captures
+            long captures = Bitboard.PAWN_ATTACKS[us][from] & enemy & allowed;
+            while (captures != 0) {
+                to = Bitboard.lsb(captures);
+                captures &= captures - 1;
+                addPawnMove(list, from, to, code, board.mailbox[to], promotionRank);
+            }
+
+            // En passant onto the square behind the enemy pawn
+            int ep = board.enPassantSquare;
+            if (ep >= 0 && (Bitboard.PAWN_ATTACKS[us][from] & Bitboard.bit(ep)) != 0
+                && isLegalEnPassant(board, us, king, from, ep, checkMask)) {
+                list.add(Moves.encode(from, ep, code, Board.pieceCode(Board.PAWN, us ^ 1), 0, Moves.EN_PASSANT));
+            }
+        }
+    }
+
+    // En passant removes two pieces from one line, so pins are tested against the resulting occupancy
+    private static boolean isLegalEnPassant(Board board, int us, int king, int from, int to, long checkMask) {
+        int captured = to + (us == Board.WHITE ? -8 : 8);
+        if ((checkMask & (Bitboard.bit(to) | Bitboard.bit(captured))) == 0) {
+            return false;
+        }
+        int them = us ^ 1;
+        long occupied = (board.occupied ^ Bitboard.bit(from) ^ Bitboard.bit(captured)) | Bitboard.bit(to);
+        long queens = board.pieceBB[Board.pieceCode(Board.QUEEN, them)];
+        return (Bitboard.rookAttacks(king, occupied)
+                & (board.pieceBB[Board.pieceCode(Board.ROOK, them)] | queens)) == 0
+            && (Bitboard.bishopAttacks(king, occupied)
+                & (board.pieceBB[Board.pieceCode(Board.BISHOP, them)] | queens)) == 0;
+    }
+
+    private static void addPawnMove(MoveList list, int from, int to, int code, int captured, long promotionRank) {
+        if ((promotionRank & Bitboard.bit(to)) != 0) {
+            for (int promotion : PROMOTIONS) {
+                list.add(Moves.encode(from, to, code, captured, promotion, 0));
+            }
+        } else {
+            list.add(Moves.encode(from, to, code, captured, 0, 0));
+        }
+    }
+
+    // Called only when the side to move is not in check
+    private static void generateCastling(Board board, MoveList list, int us) {
+        int kingSide = us == Board.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        int queenSide = us == Board.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        int king = us == Board.WHITE ? 4 : 60;
+        int code = Board.pieceCode(Board.KING, us);
+        if (canCastle(board, us, kingSide)) {
+            list.add(Moves.encode(king, king + 2, code, Board.EMPTY, 0, Moves.CASTLING));
+        }
+        if (canCastle(board, us, queenSide)) {
+            list.add(Moves.encode(king, king - 2, code, Board.EMPTY, 0, Moves.CASTLING));
+        }
+    }
+
+    /**
+     * Castling rule for one side, apart from "not in check": the right is
+     * still held, the squares between king and rook are empty, and the
+     * squares the king passes and lands on are not attacked.
+     */
+    private static boolean canCastle(Board board, int us, int right) {
+        if ((board.castlingRights & right) == 0) {
+            return false;
+        }
+        int king = us == Board.WHITE ? 4 : 60;
+        int them = us ^ 1;
+        boolean kingSide = (right & (Board.WHITE_KINGSIDE | Board.BLACK_KINGSIDE)) != 0;
+        long path = kingSide
+            ? Bitboard.bit(king + 1) | Bitboard.bit(king + 2)
+            : Bitboard.bit(king - 1) | Bitboard.bit(king - 2) | Bitboard.bit(king - 3);
+        int step = kingSide ? 1 : -1;
+        return (board.occupied & path) == 0
+            && !board.isSquareAttacked(king + step, them)
+            && !board.isSquareAttacked(king + 2 * step, them);
+    }
+}
@@ -0,0 +1,42 @@
+package com.erland.chess.model;
+
+/**
+ * Reusable buffer of packed moves. Callers own the list and clear it
+ * between uses, so generating moves allocates nothing.
+ */
+public final class MoveList {
+    // No legal chess position has more than 218 moves
+    public static final int CAPACITY = 256;
+
+    public final int[] moves = new int[CAPACITY];
+    public int size = 0;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
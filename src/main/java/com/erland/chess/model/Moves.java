@@ -0,0 +1,86 @@
+package com.erland.chess.model;
+
+/**
+ * Packed 32-bit move encoding used by the move generator.
+ * <pre>
+ * bits  0-5   from square
+ * bits  6-11  to square
+ * bits 12-15  moving piece code
+ * bits 16-19  captured piece code (valid when CAPTURE is set)
+ * bits 20-22  promotion piece type (0 = none)
+ * bits 23-26  flags
+ * </pre>
+ * A move is never 0, so 0 is used as "no move".
+ */
+public final class Moves {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 23;
+    public static final int EN_PASSANT = 1 << 24;
+    public static final int CASTLING = 1 << 25;
+    public static final int DOUBLE_PUSH = 1 << 26;
+
+    private Moves() {
+    }
+
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        int move = from | (to << 6) | (piece << 12) | (promotion << 20) | flags;
+        if (captured != Board.EMPTY) {
+            move |= (captured << 16) | CAPTURE;
+        }
+        return move;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int piece(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static int captured(int move) {
+        return (move & CAPTURE) != 0 ? (move >>> 16) & 0xF : Board.EMPTY;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 20) & 0x7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (move & CASTLING) != 0;
+    }
+
+    /**
+     * Coordinate notation such as "e2e4" or "e7e8q".
+     */
+    public static String toUci(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        int from = from(move);
+        int to = to(move);
+        String uci = "" + (char) ('a' + (from & 7)) + (char) ('1' + (from >>> 3))
+            + (char) ('a' + (to & 7)) + (char) ('1' + (to >>> 3));
+        if (isPromotion(move)) {
+            uci += "pnbrqk".charAt(promotion(move));
+        }
+        return uci;
+    }
+}
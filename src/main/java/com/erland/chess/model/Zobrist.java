@@ -0,0 +1,53 @@
+package com.erland.chess.model;
+
+/**
+ * Random keys for 64-bit Zobrist position hashing. The keys come from a
+ * fixed seed, so the same position always hashes to the same value
+ * across runs and machines.
+ */
+public final class Zobrist {
+    // PIECE_SQUARE[pieceCode][square]
+    public static final long[][] PIECE_SQUARE = new long[12][64];
+    // Same keys for pawn codes and 0 for every other piece, for the pawn-only key
+    public static final long[][] PAWN_SQUARE = new long[12][64];
+    // CASTLING[castlingRights], one key per combination of the four rights
+    public static final long[] CASTLING = new long[16];
+    public static final long[] EN_PASSANT_FILE = new long[8];
+    public static final long BLACK_TO_MOVE;
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int code = 0; code < 12; code++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[code][sq] = next();
+                if ((code >> 1) == Board.PAWN) {
+                    PAWN_SQUARE[code][sq] = PIECE_SQUARE[code][sq];
+                }
+            }
+        }
+        long[] rights = {next(), next(), next(), next()};
+        for (int i = 0; i < 16; i++) {
+            for (int bit = 0; bit < 4; bit++) {
+                if ((i & (1 << bit)) != 0) {
+                    CASTLING[i] ^= rights[bit];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = next();
+        }
+        BLACK_TO_MOVE = next();
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64
+    private static long next() {
+        long z = (seed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,4 +1,5 @@
 package com.erland.chess.model.pieces;
+
 import com.erland.chess.model.Board;
 
 public class Knight extends Piece {
@@ -6,9 +7,9 @@ public class Knight extends Piece {
         super(board);
         this.col = col; this.row = row; this.isWhite = isWhite;
         this.name = "Knight";
-        loadImage();
     }
-    public boolean isValidMovement(int newCol, int newRow) {
-        return Math.abs(newCol - col) * Math.abs(newRow - row) == 2;
+
+    public int type() {
+        return Board.KNIGHT;
     }
-}
\ No newline at end of file
+}
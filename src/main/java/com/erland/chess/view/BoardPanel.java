@@ -1,6 +1,14 @@
 package com.erland.chess.view;
 
+import com.erland.chess.model.Bitboard;
+import com.erland.chess.engine.ParallelSearch;
+import com.erland.chess.engine.PolyglotBook;
+import com.erland.chess.engine.Search;
+import com.erland.chess.engine.SearchResult;
+import com.erland.chess.engine.TranspositionTable;
 import com.erland.chess.model.Board;
+import com.erland.chess.model.MoveList;
+import com.erland.chess.model.Moves;
 import com.erland.chess.model.Board.GameState;
 import com.erland.chess.model.pieces.Piece;
 import com.erland.chess.model.pieces.King;
@@ -13,11 +21,26 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class BoardPanel extends JPanel {
     final int tileSize = 85;
     final int boardSize = tileSize * 8;
     final int panelWidth = boardSize + 250;
+    // Engine thinking time per computer move; more time means a stronger opponent
+    static final long COMPUTER_THINK_MILLIS = 1000;
+    static final int SEARCH_TABLE_MB = 32;
+    // Lazy SMP threads for the computer player, one per core by default
+    static final int SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+    // Polyglot opening book, looked up in the working directory
+    static final String BOOK_FILE = "book.bin";
     
     Board board = new Board();
     GameMode gameMode;
@@ -25,22 +48,75 @@ public class BoardPanel extends JPanel {
     boolean isHost;
     JFrame parentFrame;
     GameReviewer gameReviewer;
+    // Kept for the whole game so each computer move reuses the previous searches
+    TranspositionTable searchTable;
+    // The computer player, also kept for the whole game so its pawn tables stay warm
+    ParallelSearch engine;
+    // Consulted before every search; null when no book is installed
+    PolyglotBook openingBook;
+    // Engine searches run here, never on the EDT
+    final ExecutorService engineExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // EDT only: the running search, and a counter that invalidates older searches
+    ParallelSearch activeSearch;
+    // Engine task running activeSearch; cancelling it also covers a think that has not started yet
+    Future<?> activeTask;
+    int searchGeneration = 0;
+    // EDT only: activeSearch is pondering on the position with hash ponderKey
+    boolean pondering = false;
+    long ponderKey;
+    // Ponder search that finished before the player moved
+    SearchResult ponderResult;
     
     // UI Components
     JPanel controlPanel;
     JLabel turnLabel;
     JLabel statusLabel;
     JLabel checkLabel;
+    JLabel engineLabel;
     JButton btnSurrender;
     JButton btnCancel;
     JButton btnMenu;
-    JTextArea moveLog;
+    JList<String> moveLog;
+    DefaultListModel<String> moveLogModel = new DefaultListModel<>();
+    int loggedMoves = 0;
+
+    private static final Color LIGHT_SQUARE = new Color(235, 235, 208);
+    private static final Color DARK_SQUARE = new Color(119, 149, 86);
+    private static final Color COORDINATE_COLOR = new Color(80, 80, 80);
+    private static final Font COORDINATE_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Color CHECK_HIGHLIGHT = new Color(255, 0, 0, 120);
+    private static final Color SELECTED_HIGHLIGHT = new Color(255, 255, 0, 120);
+    private static final Color CAPTURE_MARK = new Color(255, 0, 0, 100);
+    private static final Color MOVE_MARK = new Color(0, 255, 0, 100);
+    private static final Color GAME_OVER_SHADE = new Color(0, 0, 0, 180);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 52);
+
+    // What the board area currently shows, so a change repaints only the squares it touches
+    private BufferedImage boardLayer;
+    private final int[] shownMailbox = new int[64];
+    private long shownSelected = 0L;
+    private long shownChecked = 0L;
+    private long moveTargets = 0L;
+    // Legal targets of the selected piece, valid while hash and square are unchanged
+    private long cachedTargets = 0L;
+    private long targetsHash = 0L;
+    private int targetsSquare = -1;
+    private GameState shownState = GameState.PLAYING;
 
     public BoardPanel(JFrame frame, GameMode mode, Object network, boolean isHost) {
         this.parentFrame = frame;
         this.gameMode = mode;
         this.isHost = isHost;
         this.gameReviewer = new GameReviewer();
+        if(mode == GameMode.VS_COMPUTER) {
+            this.searchTable = new TranspositionTable(SEARCH_TABLE_MB);
+            this.engine = new ParallelSearch(SEARCH_THREADS, searchTable);
+            this.openingBook = loadOpeningBook();
+        }
         
         if(network instanceof GameServer) {
             this.networkHandler = (GameServer)network;
@@ -54,6 +130,8 @@ public class BoardPanel extends JPanel {
         
         setupControlPanel();
         setupMouseListener();
+        // The first paint covers the whole panel; later ones only what changed
+        System.arraycopy(board.mailbox, 0, shownMailbox, 0, 64);
         
         if(networkHandler != null) {
             networkHandler.setBoardPanel(this);
@@ -94,6 +172,15 @@ public class BoardPanel extends JPanel {
         controlPanel.add(checkLabel);
         controlPanel.add(Box.createVerticalStrut(5));
         
+        // Engine progress (VS_COMPUTER only)
+        engineLabel = new JLabel("", SwingConstants.CENTER);
+        engineLabel.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        engineLabel.setForeground(new Color(180, 180, 180));
+        engineLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        engineLabel.setMaximumSize(new Dimension(220, 45));
+        controlPanel.add(engineLabel);
+        controlPanel.add(Box.createVerticalStrut(5));
+        
         // Status
         statusLabel = new JLabel("Playing", SwingConstants.CENTER);
         statusLabel.setFont(new Font("Arial", Font.PLAIN, 14));
@@ -128,9 +215,12 @@ public class BoardPanel extends JPanel {
         controlPanel.add(logLabel);
         controlPanel.add(Box.createVerticalStrut(5));
         
-        moveLog = new JTextArea(15, 20);
-        moveLog.setEditable(false);
+        // One row per full move; fixed cell size means the list never measures its rows
+        moveLog = new JList<>(moveLogModel);
         moveLog.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        moveLog.setFixedCellHeight(15);
+        moveLog.setFixedCellWidth(200);
+        moveLog.setVisibleRowCount(15);
         moveLog.setBackground(new Color(30, 30, 30));
         moveLog.setForeground(Color.WHITE);
         JScrollPane scrollPane = new JScrollPane(moveLog);
@@ -206,32 +296,34 @@ public class BoardPanel extends JPanel {
                 board.selectedPiece = p;
                 statusLabel.setText("Selected: " + p.name);
                 statusLabel.setForeground(Color.YELLOW);
-                repaint();
+                refreshBoard();
             }
         } else {
             Piece pieceToMove = board.selectedPiece;
-            if(board.movePiece(col, row)) {
+            // Clicks are checked against the cached legal targets before touching the board
+            boolean isTarget = (computeMoveTargets() & Bitboard.bit(Bitboard.square(col, row))) != 0;
+            int promotion = Board.QUEEN;
             // --- FITUR PROMOSI ---
-            // Cek apakah yang bergerak adalah Pion dan mencapai baris akhir
-                if (pieceToMove instanceof com.erland.chess.model.pieces.Pawn && (row == 0 || row == 7)) {
-                    
-                    // Pilihan untuk user
-                    String[] options = {"Queen", "Rook", "Bishop", "Knight"};
-                    int choice = JOptionPane.showOptionDialog(this,
-                        "Promote Pawn to:",
-                        "Pawn Promotion",
-                        JOptionPane.DEFAULT_OPTION,
-                        JOptionPane.QUESTION_MESSAGE,
-                        new ImageIcon(getClass().getResource("/images/w_queen.png")), // Ikon opsional
-                        options,
-                        options[0]); // Default Queen
-                    
-                    String selectedPiece = (choice >= 0) ? options[choice] : "Queen";
-                    
-                    // Lakukan promosi di Board
-                    board.promotePawn(col, row, selectedPiece);
-                }
-                // ---------------------
+            // Cek apakah yang bergerak adalah Pion dan mencapai baris akhir;
+            // the piece is chosen first so the move is played as that promotion
+            if (isTarget && pieceToMove instanceof com.erland.chess.model.pieces.Pawn && (row == 0 || row == 7)) {
+                
+                // Pilihan untuk user
+                String[] options = {"Queen", "Rook", "Bishop", "Knight"};
+                int choice = JOptionPane.showOptionDialog(this,
+                    "Promote Pawn to:",
+                    "Pawn Promotion",
+                    JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    new ImageIcon(PieceImages.get(Board.pieceCode(Board.QUEEN,
+                        pieceToMove.isWhite ? Board.WHITE : Board.BLACK))), // Ikon opsional
+                    options,
+                    options[0]); // Default Queen
+                
+                promotion = Board.promotionType(choice >= 0 ? options[choice] : "Queen");
+            }
+            // ---------------------
+            if(isTarget && board.movePiece(col, row, promotion)) {
 
                 // Update live analysis
                 gameReviewer.recordMove(board);
@@ -247,24 +339,9 @@ public class BoardPanel extends JPanel {
                     networkHandler.sendMove(board.moveHistory.get(board.moveHistory.size() - 1));
                 }
                 
-                // Computer move logic (tidak berubah, hanya dipicu)
-                if(gameMode == GameMode.VS_COMPUTER && !board.isWhiteTurn && 
-                board.gameState == GameState.PLAYING) {
-                    // ... (kode timer komputer tetap sama) ...
-                    statusLabel.setText("Computer thinking...");
-                    statusLabel.setForeground(Color.ORANGE);
-                    
-                    Timer timer = new Timer(800, evt -> {
-                        board.performComputerMove();
-                        gameReviewer.recordMove(board);
-                        updateMoveLog();
-                        updateTurnLabel();
-                        updateCheckStatus();
-                        checkGameEnd();
-                        repaint();
-                    });
-                    timer.setRepeats(false);
-                    timer.start();
+                // Computer move logic: the engine thinks on its worker thread
+                if(gameMode == GameMode.VS_COMPUTER) {
+                    onPlayerMoved();
                 }
                 
                 checkGameEnd();
@@ -273,7 +350,7 @@ public class BoardPanel extends JPanel {
                 statusLabel.setText("Invalid move!");
                 statusLabel.setForeground(Color.RED);
             }
-            repaint();
+            refreshBoard();
         }
     }
     
@@ -282,11 +359,10 @@ public class BoardPanel extends JPanel {
             Piece p = board.getPiece(move.fromCol, move.fromRow);
             if(p != null) {
                 board.selectedPiece = p;
-                if(board.movePiece(move.toCol, move.toRow)) {
-                    
-                    // --- MENANGANI PROMOSI DARI LAWAN ---
+                // --- MENANGANI PROMOSI DARI LAWAN ---
+                int promotion = Board.promotionType(move.promotionPiece);
+                if(board.movePiece(move.toCol, move.toRow, promotion)) {
                     if (move.promotionPiece != null) {
-                        board.promotePawn(move.toCol, move.toRow, move.promotionPiece);
                         System.out.println("Opponent promoted to: " + move.promotionPiece);
                     }
                     // ------------------------------------
@@ -296,12 +372,165 @@ public class BoardPanel extends JPanel {
                     updateTurnLabel();
                     updateCheckStatus();
                     checkGameEnd();
-                    repaint();
+                    refreshBoard();
                 }
             }
         });
     }
     
+    /**
+     * Computer's reply to the player's move. If the engine was pondering
+     * on exactly this position, that search goes on as the real one;
+     * otherwise it is cancelled and a fresh search starts.
+     */
+    private void onPlayerMoved() {
+        if (board.gameState != GameState.PLAYING || board.isWhiteTurn) {
+            cancelSearch();
+            return;
+        }
+        statusLabel.setText("Computer thinking...");
+        statusLabel.setForeground(Color.ORANGE);
+
+        if (pondering && board.hash() == ponderKey) {
+            // Ponder hit
+            pondering = false;
+            System.out.println("Ponder hit");
+            if (ponderResult != null) {
+                applyComputerMove(activeSearch, ponderResult, searchGeneration);
+            } else {
+                activeSearch.ponderhit(COMPUTER_THINK_MILLIS);
+            }
+            return;
+        }
+        cancelSearch();
+        startComputerMove();
+    }
+
+    /**
+     * Starts the engine on the worker thread. Iterations are shown in the
+     * engine label as they complete, and the chosen move is applied on
+     * the EDT, unless the search was cancelled in the meantime.
+     */
+    private void startComputerMove() {
+        int bookMove = openingBook != null ? openingBook.pick(board) : Moves.NONE;
+        if (bookMove != Moves.NONE) {
+            // Book moves are played at once, with no search and nothing to ponder on
+            System.out.println("Computer book move: " + Moves.toUci(bookMove));
+            engineLabel.setText("Book move " + Moves.toUci(bookMove));
+            playComputerMove(bookMove);
+            return;
+        }
+        runSearch(Board.fromFen(board.toFen()), COMPUTER_THINK_MILLIS);
+    }
+
+    private static PolyglotBook loadOpeningBook() {
+        Path book = Paths.get(BOOK_FILE);
+        if (!Files.exists(book)) {
+            return null;
+        }
+        try {
+            PolyglotBook loaded = PolyglotBook.open(book);
+            System.out.println("Opening book loaded: " + loaded.size() + " entries");
+            return loaded;
+        } catch (IOException e) {
+            System.err.println("Opening book not used: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Searches the position after the player's expected reply (the second
+     * move of the engine's PV) with no time limit, while the player
+     * thinks. It shares the transposition table, so even a miss leaves
+     * useful entries behind.
+     */
+    private void startPonder(int expectedMove) {
+        Board position = Board.fromFen(board.toFen());
+        MoveList legal = new MoveList();
+        position.generateLegalMoves(legal);
+        if (!legal.contains(expectedMove)) {
+            return;
+        }
+        position.makeMove(expectedMove);
+        runSearch(position, 0);
+        pondering = true;
+        ponderKey = position.hash();
+        System.out.println("Pondering on " + Moves.toUci(expectedMove));
+    }
+
+    private void runSearch(Board position, long millis) {
+        int generation = ++searchGeneration;
+        ParallelSearch search = engine;
+        search.setListener(info -> SwingUtilities.invokeLater(() -> {
+            if (generation == searchGeneration) {
+                showEngineInfo(info);
+            }
+        }));
+        activeSearch = search;
+        activeTask = engineExecutor.submit(() -> {
+            SearchResult result = search.think(position, Search.MAX_PLY, millis);
+            SwingUtilities.invokeLater(() -> searchFinished(search, result, generation));
+        });
+    }
+
+    private void searchFinished(ParallelSearch search, SearchResult result, int generation) {
+        if (generation != searchGeneration) {
+            return; // Cancelled, the game has moved on
+        }
+        if (pondering) {
+            // Ponder search ran out of depth before the player moved; keep it for a hit
+            ponderResult = result;
+            return;
+        }
+        applyComputerMove(search, result, generation);
+    }
+
+    private void applyComputerMove(ParallelSearch search, SearchResult result, int generation) {
+        if (generation != searchGeneration || board.gameState != GameState.PLAYING) {
+            return;
+        }
+        activeSearch = null;
+        activeTask = null;
+        ponderResult = null;
+        System.out.println("Computer search: " + result);
+        System.out.println("Search threads: " + search.threadReport()
+            + String.format(", pawn hits %.1f%%", 100 * search.pawnHitRate()));
+        showEngineInfo(result);
+
+        playComputerMove(result.bestMove);
+        if (board.gameState == GameState.PLAYING && result.pv.length >= 2) {
+            startPonder(result.pv[1]);
+        }
+    }
+
+    private void playComputerMove(int move) {
+        board.performComputerMove(move);
+        gameReviewer.recordMove(board);
+        updateMoveLog();
+        updateTurnLabel();
+        updateCheckStatus();
+        checkGameEnd();
+        refreshBoard();
+    }
+
+    // Stops a running or pondering search and makes sure its result is never applied
+    private void cancelSearch() {
+        searchGeneration++;
+        pondering = false;
+        ponderResult = null;
+        if (activeSearch != null) {
+            activeTask.cancel(true);
+            activeSearch.stop();
+            activeSearch = null;
+            activeTask = null;
+        }
+    }
+
+    private void showEngineInfo(SearchResult info) {
+        engineLabel.setText("<html>Depth " + info.depth + " &nbsp; " + info.scoreText()
+            + " &nbsp; " + info.nps() / 1000 + "k nps<br>" + info.pvString() + "</html>");
+    }
+    
     private void updateTurnLabel() {
         turnLabel.setText("Turn: " + (board.isWhiteTurn ? "White" : "Black"));
         btnCancel.setEnabled(board.canCancelGame());
@@ -319,19 +548,27 @@ public class BoardPanel extends JPanel {
         }
     }
     
+    // Appends only the moves played since the last call
     private void updateMoveLog() {
-        StringBuilder log = new StringBuilder();
-        for(int i = 0; i < board.moveHistory.size(); i++) {
-            if(i % 2 == 0) {
-                log.append(String.format("%2d. ", (i/2 + 1)));
-            }
-            log.append(board.moveHistory.get(i).toNotation()).append(" ");
-            if(i % 2 == 1) {
-                log.append("\n");
+        int total = board.moveHistory.size();
+        if (total < loggedMoves) {
+            // History was reset, start over
+            moveLogModel.clear();
+            loggedMoves = 0;
+        }
+        for (int i = loggedMoves; i < total; i++) {
+            String notation = board.moveHistory.get(i).toNotation();
+            if (i % 2 == 0) {
+                moveLogModel.addElement(String.format("%2d. %-11s", (i/2 + 1), notation));
+            } else {
+                int last = moveLogModel.size() - 1;
+                moveLogModel.set(last, moveLogModel.get(last) + " " + notation);
             }
         }
-        moveLog.setText(log.toString());
-        moveLog.setCaretPosition(moveLog.getDocument().getLength());
+        loggedMoves = total;
+        if (!moveLogModel.isEmpty()) {
+            moveLog.ensureIndexIsVisible(moveLogModel.size() - 1);
+        }
     }
     
     private void surrender() {
@@ -343,6 +580,7 @@ public class BoardPanel extends JPanel {
         
         if(confirm == JOptionPane.YES_OPTION) {
             boolean whiteResigns = (gameMode == GameMode.NETWORK) ? isHost : board.isWhiteTurn;
+            cancelSearch();
             board.surrender(whiteResigns);
             
             if(networkHandler != null) {
@@ -350,7 +588,7 @@ public class BoardPanel extends JPanel {
             }
             
             checkGameEnd();
-            repaint();
+            refreshBoard();
         }
     }
     
@@ -369,6 +607,7 @@ public class BoardPanel extends JPanel {
             JOptionPane.YES_NO_OPTION);
         
         if(confirm == JOptionPane.YES_OPTION) {
+            cancelSearch();
             board.gameState = GameState.CANCELLED;
             if(networkHandler != null) {
                 networkHandler.sendCancel();
@@ -457,6 +696,9 @@ public class BoardPanel extends JPanel {
     }
     
     private void backToMenu() {
+        cancelSearch();
+        engineExecutor.shutdownNow();
+        
         if(networkHandler != null) {
             try {
                 networkHandler.close();
@@ -472,6 +714,91 @@ public class BoardPanel extends JPanel {
         parentFrame.repaint();
     }
 
+    /**
+     * Brings the board area up to date after a state change. Only the
+     * squares whose piece or highlight changed since the last call are
+     * repainted; a change of game state repaints the whole board for the
+     * overlay.
+     */
+    private void refreshBoard() {
+        long selected = 0L;
+        if (board.selectedPiece != null) {
+            selected = Bitboard.bit(Bitboard.square(board.selectedPiece.col, board.selectedPiece.row));
+        }
+        long targets = computeMoveTargets();
+        long checked = 0L;
+        if (board.whiteInCheck) {
+            checked |= Bitboard.bit(board.kingSquare(Board.WHITE));
+        }
+        if (board.blackInCheck) {
+            checked |= Bitboard.bit(board.kingSquare(Board.BLACK));
+        }
+
+        long dirty = (selected ^ shownSelected) | (targets ^ moveTargets) | (checked ^ shownChecked);
+        for (int sq = 0; sq < 64; sq++) {
+            if (board.mailbox[sq] != shownMailbox[sq]) {
+                dirty |= Bitboard.bit(sq);
+                shownMailbox[sq] = board.mailbox[sq];
+            }
+        }
+        shownSelected = selected;
+        moveTargets = targets;
+        shownChecked = checked;
+
+        if (board.gameState != shownState) {
+            shownState = board.gameState;
+            repaint(0, 0, boardSize, boardSize);
+            return;
+        }
+        while (dirty != 0) {
+            int sq = Bitboard.lsb(dirty);
+            dirty &= dirty - 1;
+            repaint(Bitboard.col(sq) * tileSize, Bitboard.row(sq) * tileSize, tileSize, tileSize);
+        }
+    }
+
+    // Legal destinations of the selected piece, generated once per position and selection
+    private long computeMoveTargets() {
+        Piece selected = board.selectedPiece;
+        if (selected == null) {
+            return 0L;
+        }
+        int square = Bitboard.square(selected.col, selected.row);
+        if (board.hash() != targetsHash || square != targetsSquare) {
+            targetsHash = board.hash();
+            targetsSquare = square;
+            cachedTargets = board.legalTargets(selected.col, selected.row);
+        }
+        return cachedTargets;
+    }
+
+    // Static layer: board squares and coordinates, drawn once
+    private BufferedImage boardLayer() {
+        if (boardLayer == null) {
+            boardLayer = new BufferedImage(boardSize, boardSize, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = boardLayer.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            for (int c = 0; c < 8; c++) {
+                for (int r = 0; r < 8; r++) {
+                    g2.setColor((c + r) % 2 == 0 ? LIGHT_SQUARE : DARK_SQUARE);
+                    g2.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
+                }
+            }
+            g2.setColor(COORDINATE_COLOR);
+            g2.setFont(COORDINATE_FONT);
+            for(int i = 0; i < 8; i++) {
+                // Files (a-h)
+                g2.drawString(String.valueOf((char)('a' + i)), 
+                             i * tileSize + tileSize - 15, boardSize - 5);
+                // Ranks (1-8)
+                g2.drawString(String.valueOf(8 - i), 
+                             5, i * tileSize + 15);
+            }
+            g2.dispose();
+        }
+        return boardLayer;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -481,74 +808,57 @@ public class BoardPanel extends JPanel {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        // Draw board tiles
-        for (int c = 0; c < 8; c++) {
-            for (int r = 0; r < 8; r++) {
-                // Alternate colors
-                if ((c + r) % 2 == 0) {
-                    g2.setColor(new Color(235, 235, 208));
-                } else {
-                    g2.setColor(new Color(119, 149, 86));
-                }
-                g2.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
-                
-                // Highlight king in check
-                Piece p = board.getPiece(c, r);
-                if (p instanceof King) {
-                    boolean inCheck = p.isWhite ? board.whiteInCheck : board.blackInCheck;
-                    if (inCheck) {
-                        g2.setColor(new Color(255, 0, 0, 120));
-                        g2.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
-                    }
+        // Layer 1: cached squares and coordinates (the clip limits the blit)
+        g2.drawImage(boardLayer(), 0, 0, null);
+
+        // Only the squares inside the dirty region are redrawn
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, boardSize, boardSize);
+        }
+        int minCol = Math.max(0, clip.x / tileSize);
+        int maxCol = Math.min(7, (clip.x + clip.width - 1) / tileSize);
+        int minRow = Math.max(0, clip.y / tileSize);
+        int maxRow = Math.min(7, (clip.y + clip.height - 1) / tileSize);
+
+        for (int c = minCol; c <= maxCol; c++) {
+            for (int r = minRow; r <= maxRow; r++) {
+                long b = Bitboard.bit(Bitboard.square(c, r));
+                int x = c * tileSize;
+                int y = r * tileSize;
+
+                // Layer 2: highlight overlay
+                if ((shownChecked & b) != 0) {
+                    g2.setColor(CHECK_HIGHLIGHT);
+                    g2.fillRect(x, y, tileSize, tileSize);
                 }
-                
-                // Highlight selected piece
-                if (board.selectedPiece != null && 
-                    board.selectedPiece.col == c && board.selectedPiece.row == r) {
-                    g2.setColor(new Color(255, 255, 0, 120));
-                    g2.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
+                if ((shownSelected & b) != 0) {
+                    g2.setColor(SELECTED_HIGHLIGHT);
+                    g2.fillRect(x, y, tileSize, tileSize);
                 }
-                
-                // Show valid moves for selected piece
-                if (board.selectedPiece != null && board.selectedPiece.canMove(c, r)) {
-                    if (board.wouldBeInCheckAfterMove(board.selectedPiece, c, r)) {
-                        continue; // Lewati (jangan gambar) jika ini langkah bunuh diri
-                    }
-                    
-                    Piece target = board.getPiece(c, r);
-                    if(target != null) {
+                if ((moveTargets & b) != 0) {
+                    if ((board.occupied & b) != 0) {
                         // Red circle for capture
-                        g2.setColor(new Color(255, 0, 0, 100));
-                        g2.fillOval(c * tileSize + tileSize/4, r * tileSize + tileSize/4, 
-                                   tileSize/2, tileSize/2);
+                        g2.setColor(CAPTURE_MARK);
+                        g2.fillOval(x + tileSize/4, y + tileSize/4, tileSize/2, tileSize/2);
                     } else {
                         // Green dot for regular move
-                        g2.setColor(new Color(0, 255, 0, 100));
-                        g2.fillOval(c * tileSize + tileSize/3, r * tileSize + tileSize/3, 
-                                   tileSize/3, tileSize/3);
+                        g2.setColor(MOVE_MARK);
+                        g2.fillOval(x + tileSize/3, y + tileSize/3, tileSize/3, tileSize/3);
                     }
                 }
+
+                // Layer 3: pieces, blitted from the pre-scaled atlas
+                int code = board.mailbox[Bitboard.square(c, r)];
+                if (code != Board.EMPTY) {
+                    g2.drawImage(PieceImages.sprite(code, tileSize), x, y, null);
+                }
             }
         }
         
-        // Draw coordinates
-        g2.setColor(new Color(80, 80, 80));
-        g2.setFont(new Font("Arial", Font.BOLD, 12));
-        for(int i = 0; i < 8; i++) {
-            // Files (a-h)
-            g2.drawString(String.valueOf((char)('a' + i)), 
-                         i * tileSize + tileSize - 15, boardSize - 5);
-            // Ranks (1-8)
-            g2.drawString(String.valueOf(8 - i), 
-                         5, i * tileSize + 15);
-        }
-
-        // Draw pieces
-        board.draw(g2, boardSize);
-        
         // Game over overlay
         if(board.gameState != GameState.PLAYING && board.gameState != GameState.CANCELLED) {
-            g2.setColor(new Color(0, 0, 0, 180));
+            g2.setColor(GAME_OVER_SHADE);
             g2.fillRect(0, 0, boardSize, boardSize);
             
             String text = "";
@@ -570,7 +880,7 @@ public class BoardPanel extends JPanel {
             }
             
             g2.setColor(textColor);
-            g2.setFont(new Font("Arial", Font.BOLD, 52));
+            g2.setFont(GAME_OVER_FONT);
             FontMetrics fm = g2.getFontMetrics();
             int x = (boardSize - fm.stringWidth(text)) / 2;
             int y = boardSize / 2;
@@ -584,4 +894,4 @@ public class BoardPanel extends JPanel {
             g2.drawString(text, x, y);
         }
     }
-}
\ No newline at end of file
+}
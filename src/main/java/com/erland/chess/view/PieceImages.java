@@ -0,0 +1,91 @@
+package com.erland.chess.view;
+
+import com.erland.chess.model.Board;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * Piece sprite atlas shared by every board. Each of the 12 piece images
+ * is decoded once; sprite() hands out copies pre-scaled to the tile size
+ * in the screen's compatible format, so repaints blit them 1:1 instead of
+ * scaling. The scaled set is rebuilt only when the tile size changes.
+ * The model never touches these; only the view draws pieces.
+ * EDT only.
+ */
+public final class PieceImages {
+    private static final BufferedImage[] IMAGES = new BufferedImage[12];
+    private static final BufferedImage[] SPRITES = new BufferedImage[12];
+    private static int spriteSize = -1;
+
+    private PieceImages() {
+    }
+
+    /** Decoded image at its original size. */
+    public static BufferedImage get(int code) {
+        BufferedImage image = IMAGES[code];
+        if (image == null) {
+            image = load(code);
+            IMAGES[code] = image;
+        }
+        return image;
+    }
+
+    /** Image pre-scaled to size x size pixels, ready to draw without scaling. */
+    public static BufferedImage sprite(int code, int size) {
+        if (size != spriteSize) {
+            Arrays.fill(SPRITES, null);
+            spriteSize = size;
+        }
+        BufferedImage sprite = SPRITES[code];
+        if (sprite == null) {
+            sprite = scale(get(code), size);
+            SPRITES[code] = sprite;
+        }
+        return sprite;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage scaled;
+        if (GraphicsEnvironment.isHeadless()) {
+            scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            // Same pixel layout as the screen, so the blit can be accelerated
+            scaled = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+        }
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(source, 0, 0, size, size, null);
+        g2.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage load(int code) {
+        String path = "/images/" + ((code & 1) == Board.WHITE ? "w_" : "b_")
+            + Board.PIECE_NAMES[code >> 1].toLowerCase() + ".png";
+        try (InputStream stream = PieceImages.class.getResourceAsStream(path)) {
+            if (stream != null) {
+                BufferedImage image = ImageIO.read(stream);
+                if (image != null) {
+                    return image;
+                }
+            }
+            System.err.println("Image not found: " + path);
+            System.err.println("Note: Place chess piece images in src/main/resources/images/");
+        } catch (IOException e) {
+            System.err.println("Failed to load image: " + path);
+            e.printStackTrace();
+        }
+        // Transparent placeholder instead of failing
+        return new BufferedImage(60, 60, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,66 @@
+package com.erland.chess;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Perft regression oracle: leaf counts of the legal move tree against the
+ * published values for the standard test positions. Any change to move
+ * generation, make/unmake or hashing that breaks legality shows up here.
+ */
+public class PerftTest {
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    private static long perft(String fen, int depth) {
+        return Perft.divide(fen, depth, THREADS, false, null);
+    }
+
+    @Test
+    public void startPosition() {
+        assertEquals(20, perft(Perft.START_FEN, 1));
+        assertEquals(8902, perft(Perft.START_FEN, 3));
+        assertEquals(4865609, perft(Perft.START_FEN, 5));
+        assertEquals(119060324, perft(Perft.START_FEN, 6));
+    }
+
+    @Test
+    public void kiwipete() {
+        assertEquals(48, perft(KIWIPETE, 1));
+        assertEquals(4085603, perft(KIWIPETE, 4));
+        assertEquals(193690690, perft(KIWIPETE, 5));
+    }
+
+    @Test
+    public void position3() {
+        assertEquals(11030083, perft(POSITION_3, 6));
+    }
+
+    @Test
+    public void position4() {
+        assertEquals(15833292, perft(POSITION_4, 5));
+    }
+
+    @Test
+    public void position5() {
+        assertEquals(89941194, perft(POSITION_5, 5));
+    }
+
+    @Test
+    public void position6() {
+        assertEquals(164075551, perft(POSITION_6, 5));
+    }
+
+    @Test
+    public void hashedPerftMatchesPlain() {
+        Perft.Cache cache = new Perft.Cache(16);
+        assertEquals(4085603, Perft.divide(KIWIPETE, 4, THREADS, false, cache));
+        assertEquals(11030083, Perft.divide(POSITION_3, 6, THREADS, false, cache));
+    }
+}
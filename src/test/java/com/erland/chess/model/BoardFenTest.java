@@ -0,0 +1,98 @@
+package com.erland.chess.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * FEN parsing: positions that round-trip through fromFen and toFen, and
+ * malformed or impossible FENs that fromFen must reject.
+ */
+public class BoardFenTest {
+
+    private static void assertRoundTrip(String fen) {
+        assertEquals(fen, Board.fromFen(fen).toFen());
+    }
+
+    private static void assertRejected(String fen) {
+        try {
+            Board.fromFen(fen);
+            fail("Accepted " + fen);
+        } catch (IllegalArgumentException expected) {
+            // rejected as it should be
+        }
+    }
+
+    @Test
+    public void roundTrips() {
+        assertRoundTrip("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertRoundTrip("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertRoundTrip("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        assertRoundTrip("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        assertRoundTrip("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        // En passant squares a pawn can capture on are kept, for either side to move
+        assertRoundTrip("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertRoundTrip("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3");
+    }
+
+    @Test
+    public void uncapturableEnPassantSquareIsDropped() {
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+            Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").toFen());
+    }
+
+    @Test
+    public void missingMoveCountersDefault() {
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", Board.fromFen("4k3/8/8/8/8/8/8/4K3 w - -").toFen());
+    }
+
+    @Test
+    public void malformedFieldsAreRejected() {
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w -");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - - 0 1 extra");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 x - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w KX - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - e3 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - i6 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - - -1 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - - 0 0");
+        assertRejected("4k3/8/8/8/8/8/8/4K3 w - - x 1");
+    }
+
+    @Test
+    public void badPiecePlacementIsRejected() {
+        assertRejected("4k3/8/8/8/8/8/8/4K2 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K4 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/4K3 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K3/ w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4X3 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/4K0Q2 w - - 0 1");
+    }
+
+    @Test
+    public void impossiblePositionsAreRejected() {
+        assertRejected("8/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/3KK3 w - - 0 1");
+        assertRejected("P3k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertRejected("4k3/8/8/8/8/8/8/p3K3 w - - 0 1");
+        // Black to move while White's king is in check
+        assertRejected("4k3/8/8/8/8/8/8/r3K3 b - - 0 1");
+    }
+
+    @Test
+    public void enPassantSquareNeedsADoublePushedPawn() {
+        // No pawn in front of e6
+        assertRejected("4k3/8/8/3P4/8/8/8/4K3 w - e6 0 1");
+        // e6 itself is occupied
+        assertRejected("4k3/8/4p3/3Pp3/8/8/8/4K3 w - e6 0 1");
+        // e7, where the pawn came from, is occupied
+        assertRejected("4k3/4p3/8/3Pp3/8/8/8/4K3 w - e6 0 1");
+        // The pawn in front of e6 is White's own
+        assertRejected("4k3/8/8/3PP3/8/8/8/4K3 w - e6 0 1");
+        // Same checks with Black to move
+        assertRejected("4k3/8/8/8/3p4/8/8/4K3 b - e3 0 1");
+        assertRejected("4k3/8/8/8/3pP3/8/4P3/4K3 b - e3 0 1");
+    }
+}